@@ -0,0 +1,52 @@
+package attempt2;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse and extraction of the real InboundOrdersTransParserXML in src/main/resources/parser.java.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BundledParserBenchmark {
+  private String source;
+  private CompilationUnit cu;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream in = BundledParserBenchmark.class.getResourceAsStream("/parser.java")) {
+      source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    cu = new JavaParser().parse(source).getResult().orElseThrow();
+  }
+
+  @Benchmark
+  public CompilationUnit parse() {
+    return new JavaParser().parse(source).getResult().orElseThrow();
+  }
+
+  @Benchmark
+  public List<XMLAttribute> extract() {
+    return AttributeExtractor.extract(cu);
+  }
+}
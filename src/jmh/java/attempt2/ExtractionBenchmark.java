@@ -0,0 +1,90 @@
+package attempt2;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Parse, extraction, XMLAttribute construction and output rendering on synthetic parsers of growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+  @Param({"100", "1000", "10000", "50000"})
+  public int getters;
+
+  private String source;
+  private CompilationUnit cu;
+  private List<MethodCallExpr> parseCalls;
+  private List<XMLAttribute> attributes;
+
+  @Setup
+  public void setUp() {
+    source = SyntheticParser.generate(getters);
+    cu = new JavaParser().parse(source).getResult().orElseThrow();
+    parseCalls = cu.findAll(MethodCallExpr.class, ParseCallMatcher::matches);
+    attributes = AttributeExtractor.extract(cu);
+  }
+
+  @Benchmark
+  public CompilationUnit parse() {
+    return new JavaParser().parse(source).getResult().orElseThrow();
+  }
+
+  // The original nested findAll + toString filter of Parsing, kept as a baseline.
+  @Benchmark
+  public List<XMLAttribute> extractFindAll() {
+    List<XMLAttribute> attributeList = new ArrayList<>();
+    for (var methodDecl : cu.findAll(MethodDeclaration.class)) {
+      var getAttrValCalls = methodDecl.findAll(MethodCallExpr.class).stream()
+        .filter(methodCallExpr -> methodCallExpr.toString().contains("getAttributeValue"))
+        .filter(methodCallExpr -> !methodCallExpr.toString().startsWith("getAttributeValue"))
+        .collect(Collectors.toList());
+      getAttrValCalls.forEach(k -> attributeList.add(new XMLAttribute(k)));
+    }
+    return attributeList;
+  }
+
+  @Benchmark
+  public List<XMLAttribute> extractVisitor() {
+    return AttributeExtractor.extract(cu);
+  }
+
+  @Benchmark
+  public void constructAttributes(Blackhole blackhole) {
+    for (MethodCallExpr call : parseCalls) {
+      blackhole.consume(new XMLAttribute(call));
+    }
+  }
+
+  @Benchmark
+  public int renderOutput() {
+    StringBuilder output = new StringBuilder();
+    for (XMLAttribute attribute : attributes) {
+      output.append(attribute).append('\n');
+    }
+    return output.length();
+  }
+}
@@ -0,0 +1,57 @@
+package attempt2;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full versus lean parser configuration, for parse alone and parse plus extraction.
+ * Run with {@code -prof gc} (jmh { profilers = ['gc'] }) to compare allocation per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserConfigurationBenchmark {
+  @Param({"100", "1000", "10000", "50000"})
+  public int getters;
+
+  @Param({"full", "lean"})
+  public String configuration;
+
+  private String source;
+  private JavaParser parser;
+
+  @Setup
+  public void setUp() {
+    source = SyntheticParser.generate(getters);
+    ParserConfiguration config = configuration.equals("lean") ? ParserConfigurations.lean() : ParserConfigurations.full();
+    parser = new JavaParser(config);
+  }
+
+  @Benchmark
+  public CompilationUnit parse() {
+    return parser.parse(source).getResult().orElseThrow();
+  }
+
+  @Benchmark
+  public List<XMLAttribute> parseAndExtract() {
+    return AttributeExtractor.extract(parser.parse(source).getResult().orElseThrow());
+  }
+}
@@ -0,0 +1,69 @@
+package attempt2;
+
+/**
+ * Generates a transaction parser in the shape of parser.java with a given number of getters,
+ * mixing required, optional and nested-node getters of different return types.
+ */
+final class SyntheticParser {
+  private static final String[] NODES = {"orderHeadNode", "customerIdNode", "supplierIdNode", "boxLineNode",
+    "deliveryIdNode", "productCumulatedNode", "headOrderReferenceNode", "boxHeadNode"};
+  private static final String[] TYPES = {"String", "double", "int", "boolean", "Date"};
+
+  private SyntheticParser() {
+  }
+
+  static String generate(int getters) {
+    StringBuilder source = new StringBuilder(getters * 400);
+    source.append("package se.masystem.pipeline.macom;\n\n")
+      .append("import java.util.Date;\n")
+      .append("import org.w3c.dom.Node;\n")
+      .append("import org.w3c.dom.NodeList;\n\n")
+      .append("public class SyntheticTransParserXML extends InboundTransParserXML implements OrdersTypes {\n");
+    for (String node : NODES) {
+      source.append("  private Node ").append(node).append(";\n");
+    }
+    source.append("  private NodeList orderLineNodeList;\n")
+      .append("  private int currentOrderLineNodeIndex = -1;\n\n");
+    for (int i = 0; i < getters; i++) {
+      appendGetter(source, i);
+    }
+    return source.append("}\n").toString();
+  }
+
+  private static void appendGetter(StringBuilder source, int i) {
+    String type = TYPES[i % TYPES.length];
+    String parseType = type.equals("String") || type.equals("Date") ? type : type.toLowerCase();
+    String constant = "ATTRIBUTE_" + i;
+    String node = i % 7 == 0
+      ? "orderLineNodeList, currentOrderLineNodeIndex"
+      : NODES[i % NODES.length];
+    String call = "getAttributeValue (" + node + ", " + constant + ")";
+    source.append("  /**************************************************************\n")
+      .append("   * Get attribute ").append(i).append(" in the transaction\n")
+      .append("   *************************************************************/\n")
+      .append("  @Override\n")
+      .append("  public ").append(type).append(" getAttribute").append(i).append(" () throws MAException {\n");
+    if (i % 3 == 0) {
+      source.append("    try {\n")
+        .append("      return parse").append(parseType).append("Optional (").append(call).append(", ").append(constant).append(");\n")
+        .append("    } catch (MAComOptionalFieldMissingException opt) {}\n")
+        .append("    return ").append(defaultValue(type)).append(";\n");
+    } else {
+      source.append("    return parse").append(parseType).append("Required (").append(call).append(", ").append(constant).append(");\n");
+    }
+    source.append("  }//end getAttribute").append(i).append("\n\n");
+  }
+
+  private static String defaultValue(String type) {
+    switch (type) {
+      case "double":
+        return "0.0";
+      case "int":
+        return "0";
+      case "boolean":
+        return "false";
+      default:
+        return "null";
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package attempt2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The attributes read from each node variable of a class, numbered in order of first use. A runtime can read the
+ * attributes of an element once into a flat array indexed by these slots, instead of looking each one up by name in
+ * every getter. Attributes without a constant cannot be addressed and are left out.
+ */
+public class AccessPlan {
+  private final Map<String, List<Slot>> slotsByNode = new LinkedHashMap<>();
+
+  public static AccessPlan of(List<XMLAttribute> attributes) {
+    AccessPlan plan = new AccessPlan();
+    attributes.forEach(plan::add);
+    return plan;
+  }
+
+  public void add(XMLAttribute attribute) {
+    if (attribute.getAttributeConstant() == null) return;
+    List<Slot> slots = slotsByNode.computeIfAbsent(attribute.getXmlNodeVariable(), node -> new ArrayList<>());
+    for (Slot slot : slots) {
+      if (slot.constant.equals(attribute.getAttributeConstant())) {
+        slot.add(attribute);
+        return;
+      }
+    }
+    Slot slot = new Slot(slots.size(), attribute.getAttributeConstant(), attribute.getAttributeName());
+    slot.add(attribute);
+    slots.add(slot);
+  }
+
+  /**
+   * The node variables in order of first use, each with its slots in index order.
+   */
+  public Map<String, List<Slot>> nodes() {
+    return Collections.unmodifiableMap(slotsByNode);
+  }
+
+  /**
+   * The slot of an attribute constant of a node variable, or -1 if it is not read from that variable.
+   */
+  public int slot(String xmlNodeVariable, String attributeConstant) {
+    for (Slot slot : slotsByNode.getOrDefault(xmlNodeVariable, List.of())) {
+      if (slot.constant.equals(attributeConstant)) return slot.index;
+    }
+    return -1;
+  }
+
+  public boolean isEmpty() {
+    return slotsByNode.isEmpty();
+  }
+
+  public static final class Slot {
+    private final int index;
+    private final String constant;
+    private final String name;
+    private final List<String> methods = new ArrayList<>();
+    private boolean required;
+
+    private Slot(int index, String constant, String name) {
+      this.index = index;
+      this.constant = constant;
+      this.name = name;
+    }
+
+    private void add(XMLAttribute attribute) {
+      if (!methods.contains(attribute.getMethodName())) methods.add(attribute.getMethodName());
+      required |= attribute.isRequired();
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    public String getConstant() {
+      return constant;
+    }
+
+    /**
+     * The resolved attribute name, or null if the constant has not been resolved.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * The methods reading the slot, in order of first use.
+     */
+    public List<String> getMethods() {
+      return Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * Whether any of the methods requires the attribute.
+     */
+    public boolean isRequired() {
+      return required;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Reports over whole parser classes, run with --analyze instead of extracting attributes. Each yields one finding per
+ * line, in the order to look at them.
+ */
+public enum Analysis {
+  SCANS(ScanDetector::detect),
+  EXCEPTIONS(ExceptionFlowDetector::detect),
+  GETTERS(GetterCallGraph::detect);
+
+  private final Function<CompilationUnit, List<?>> analysis;
+
+  Analysis(Function<CompilationUnit, List<?>> analysis) {
+    this.analysis = analysis;
+  }
+
+  public List<?> run(CompilationUnit cu) {
+    return analysis.apply(cu);
+  }
+
+  public static Analysis of(String name) {
+    try {
+      return valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown analysis: " + name);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package attempt2;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads the attributes a parser class needs from a document in one SAX pass, without building a DOM and without
+ * any subtree scans: the resolved element paths of the attributes are compiled into one {@link PathAutomaton}, and
+ * every element the automaton matches is reported with the values of the attributes read from its path. An attribute
+ * whose node variable may point to several elements is read from all of their paths.
+ * <p>
+ * Only attributes with a resolved element path and attribute name can be captured (see
+ * {@link ConstantIndex#resolve(XMLAttribute)}); the others are left out and listed by {@link #getSkipped()}. A capture
+ * is safe to share between threads, each parse gets its own handler.
+ */
+public class AttributeCapture {
+  private final PathAutomaton automaton;
+  // Per path of the automaton the attribute names read from it.
+  private final String[][] names;
+  private final List<XMLAttribute> skipped = new ArrayList<>();
+
+  public AttributeCapture(Collection<XMLAttribute> attributes) {
+    Map<String, Set<String>> namesByPath = new LinkedHashMap<>();
+    for (XMLAttribute attribute : attributes) {
+      if (attribute.getResolvedElementPath() == null || attribute.getAttributeName() == null) {
+        skipped.add(attribute);
+        continue;
+      }
+      for (String path : ElementPaths.alternatives(attribute.getResolvedElementPath())) {
+        namesByPath.computeIfAbsent(path, p -> new LinkedHashSet<>()).add(attribute.getAttributeName());
+      }
+    }
+    automaton = new PathAutomaton(new ArrayList<>(namesByPath.keySet()));
+    names = new String[automaton.size()][];
+    for (int path = 0; path < names.length; path++) {
+      names[path] = namesByPath.get(automaton.path(path)).toArray(new String[0]);
+    }
+  }
+
+  /**
+   * The attributes that cannot be captured because their element path or name is not resolved.
+   */
+  public List<XMLAttribute> getSkipped() {
+    return skipped;
+  }
+
+  public PathAutomaton getAutomaton() {
+    return automaton;
+  }
+
+  /**
+   * A handler for one parse, reporting each matched element with its path and the values of the attributes read from
+   * it, in document order. Attributes absent from the element are absent from the map.
+   */
+  public DefaultHandler handler(BiConsumer<String, Map<String, String>> listener) {
+    return new Handler(listener);
+  }
+
+  public void capture(InputStream in, BiConsumer<String, Map<String, String>> listener) throws IOException {
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      SAXParser parser = factory.newSAXParser();
+      parser.parse(in, handler(listener));
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private final class Handler extends DefaultHandler {
+    private final BiConsumer<String, Map<String, String>> listener;
+    private final Deque<PathAutomaton.State> open = new ArrayDeque<>();
+
+    private Handler(BiConsumer<String, Map<String, String>> listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void startDocument() {
+      open.clear();
+      open.push(automaton.start());
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+      PathAutomaton.State state = open.peek().next(localName.isEmpty() ? qName : localName);
+      open.push(state);
+      for (int path : state.matches()) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : names[path]) {
+          String value = attributes.getValue(name);
+          if (value != null) values.put(name, value);
+        }
+        listener.accept(automaton.path(path), values);
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      open.pop();
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class AttributeExtractor {
+  private AttributeExtractor() {
+  }
+
+  public static List<XMLAttribute> extract(CompilationUnit cu) {
+    List<XMLAttribute> attributeList = new ArrayList<>();
+    extract(cu, attributeList::add);
+    return attributeList;
+  }
+
+  public static void extract(CompilationUnit cu, Consumer<XMLAttribute> sink) {
+    cu.accept(new AttributeVisitor(), sink);
+  }
+}
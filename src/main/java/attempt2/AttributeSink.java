@@ -0,0 +1,17 @@
+package attempt2;
+
+import java.nio.file.Path;
+
+/**
+ * Receives attributes as they are extracted, grouped by source file, so nothing has to be buffered for the whole run.
+ */
+public interface AttributeSink extends AutoCloseable {
+  void source(Path source);
+
+  void attribute(XMLAttribute attribute);
+
+  void flush();
+
+  @Override
+  void close();
+}
@@ -0,0 +1,260 @@
+package attempt2;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Column store for the attributes of a whole corpus. Source files, methods, node variables, element paths, types,
+ * parse functions and attribute constants and names are dictionary encoded as int ids (-1 for null) and the required
+ * flags are a bit set, so a row costs a few ints instead of an object graph.
+ * Rows are read through a {@link Row} cursor that is moved from row to row rather than allocated per row; its strings
+ * are the dictionaries' shared instances. {@link ExtractionCache} keeps the attributes it loads in a table.
+ * Not thread-safe while rows are added.
+ */
+public class AttributeTable {
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Dictionary sources = new Dictionary();
+  private final Dictionary methods = new Dictionary();
+  private final Dictionary nodeVariables = new Dictionary();
+  private final Dictionary paths = new Dictionary();
+  private final Dictionary types = new Dictionary();
+  private final Dictionary parseFunctions = new Dictionary();
+  private final Dictionary names = new Dictionary();
+  private int[] sourceIds = new int[INITIAL_CAPACITY];
+  private int[] methodIds = new int[INITIAL_CAPACITY];
+  private int[] nodeVariableIds = new int[INITIAL_CAPACITY];
+  private int[] elementPathIds = new int[INITIAL_CAPACITY];
+  private int[] resolvedElementPathIds = new int[INITIAL_CAPACITY];
+  private int[] typeIds = new int[INITIAL_CAPACITY];
+  private int[] parseFunctionIds = new int[INITIAL_CAPACITY];
+  private int[] attributeConstantIds = new int[INITIAL_CAPACITY];
+  private int[] attributeNameIds = new int[INITIAL_CAPACITY];
+  private final BitSet required = new BitSet();
+  private int size;
+
+  public static AttributeTable of(Map<?, List<XMLAttribute>> attributesBySource) {
+    AttributeTable table = new AttributeTable();
+    attributesBySource.forEach((source, attributes) -> attributes.forEach(a -> table.add(source.toString(), a)));
+    return table;
+  }
+
+  public void add(String source, XMLAttribute attribute) {
+    if (size == sourceIds.length) grow(sourceIds.length + (sourceIds.length >> 1));
+    sourceIds[size] = sources.id(source);
+    methodIds[size] = methods.id(attribute.getMethodName());
+    nodeVariableIds[size] = nodeVariables.id(attribute.getXmlNodeVariable());
+    elementPathIds[size] = paths.id(attribute.getElementPath());
+    resolvedElementPathIds[size] = paths.id(attribute.getResolvedElementPath());
+    typeIds[size] = types.id(attribute.getType());
+    parseFunctionIds[size] = parseFunctions.id(attribute.getParseFunction().getName());
+    attributeConstantIds[size] = names.id(attribute.getAttributeConstant());
+    attributeNameIds[size] = names.id(attribute.getAttributeName());
+    required.set(size, attribute.isRequired());
+    size++;
+  }
+
+  private void grow(int capacity) {
+    sourceIds = Arrays.copyOf(sourceIds, capacity);
+    methodIds = Arrays.copyOf(methodIds, capacity);
+    nodeVariableIds = Arrays.copyOf(nodeVariableIds, capacity);
+    elementPathIds = Arrays.copyOf(elementPathIds, capacity);
+    resolvedElementPathIds = Arrays.copyOf(resolvedElementPathIds, capacity);
+    typeIds = Arrays.copyOf(typeIds, capacity);
+    parseFunctionIds = Arrays.copyOf(parseFunctionIds, capacity);
+    attributeConstantIds = Arrays.copyOf(attributeConstantIds, capacity);
+    attributeNameIds = Arrays.copyOf(attributeNameIds, capacity);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * A new cursor, positioned with {@link Row#at(int)}. One cursor per thread.
+   */
+  public Row cursor() {
+    return new Row();
+  }
+
+  /**
+   * Passes every row to the action through one cursor, so the action must not keep it.
+   */
+  public void forEach(Consumer<Row> action) {
+    Row row = new Row();
+    for (int i = 0; i < size; i++) action.accept(row.at(i));
+  }
+
+  /**
+   * The rows from (inclusive) to (exclusive) as attributes, for callers that keep them.
+   */
+  public List<XMLAttribute> attributes(int from, int to) {
+    if (from < 0 || to > size || from > to) throw new IndexOutOfBoundsException(from + ".." + to + ", size " + size);
+    List<XMLAttribute> attributes = new ArrayList<>(to - from);
+    Row row = new Row();
+    for (int i = from; i < to; i++) attributes.add(row.at(i).toAttribute());
+    return attributes;
+  }
+
+  /**
+   * A view of one row at a time; moving it is free and it holds no state but the row number.
+   */
+  public final class Row {
+    private int row = -1;
+
+    private Row() {
+    }
+
+    public Row at(int row) {
+      if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+      this.row = row;
+      return this;
+    }
+
+    public int index() {
+      return row;
+    }
+
+    public String getSource() {
+      return sources.string(sourceIds[row]);
+    }
+
+    public String getMethodName() {
+      return methods.string(methodIds[row]);
+    }
+
+    public String getXmlNodeVariable() {
+      return nodeVariables.string(nodeVariableIds[row]);
+    }
+
+    public String getElementPath() {
+      return paths.string(elementPathIds[row]);
+    }
+
+    public String getType() {
+      return types.string(typeIds[row]);
+    }
+
+    public ParseFunction getParseFunction() {
+      return ParseFunction.of(parseFunctions.string(parseFunctionIds[row]));
+    }
+
+    public boolean isRequired() {
+      return required.get(row);
+    }
+
+    public String getAttributeConstant() {
+      return names.string(attributeConstantIds[row]);
+    }
+
+    public String getAttributeName() {
+      return names.string(attributeNameIds[row]);
+    }
+
+    public String getResolvedElementPath() {
+      return paths.string(resolvedElementPathIds[row]);
+    }
+
+    public XMLAttribute toAttribute() {
+      return new XMLAttribute(getMethodName(), getXmlNodeVariable(), getElementPath(), getType(),
+        parseFunctions.string(parseFunctionIds[row]), getAttributeConstant(), getAttributeName(),
+        getResolvedElementPath());
+    }
+  }
+
+  /**
+   * Writes the dictionaries, then column by column the ids of every row and the required flags.
+   */
+  void write(DataOutputStream out) throws IOException {
+    for (Dictionary dictionary : dictionaries()) dictionary.write(out);
+    out.writeInt(size);
+    for (int[] column : columns()) {
+      for (int i = 0; i < size; i++) out.writeInt(column[i]);
+    }
+    long[] bits = required.toLongArray();
+    out.writeInt(bits.length);
+    for (long word : bits) out.writeLong(word);
+  }
+
+  /**
+   * Reads what {@link #write} wrote; counts above the limit and ids outside their dictionary are reported as an
+   * IOException, so a corrupt input cannot allocate unbounded arrays or fail later on access.
+   */
+  static AttributeTable read(DataInputStream in, long limit) throws IOException {
+    AttributeTable table = new AttributeTable();
+    for (Dictionary dictionary : table.dictionaries()) dictionary.read(in, limit);
+    int size = count(in, limit);
+    table.grow(Math.max(size, INITIAL_CAPACITY));
+    table.size = size;
+    Dictionary[] dictionaries = table.columnDictionaries();
+    int[][] columns = table.columns();
+    for (int c = 0; c < columns.length; c++) {
+      for (int i = 0; i < size; i++) {
+        int id = in.readInt();
+        if (id < -1 || id >= dictionaries[c].strings.size()) throw new IOException("corrupt id " + id);
+        columns[c][i] = id;
+      }
+    }
+    long[] bits = new long[count(in, limit)];
+    for (int i = 0; i < bits.length; i++) bits[i] = in.readLong();
+    table.required.or(BitSet.valueOf(bits));
+    return table;
+  }
+
+  static int count(DataInputStream in, long limit) throws IOException {
+    int count = in.readInt();
+    if (count < 0 || count > limit) throw new IOException("corrupt count " + count);
+    return count;
+  }
+
+  private Dictionary[] dictionaries() {
+    return new Dictionary[] {sources, methods, nodeVariables, paths, types, parseFunctions, names};
+  }
+
+  private int[][] columns() {
+    return new int[][] {sourceIds, methodIds, nodeVariableIds, elementPathIds, resolvedElementPathIds, typeIds,
+      parseFunctionIds, attributeConstantIds, attributeNameIds};
+  }
+
+  // The dictionary of each of columns().
+  private Dictionary[] columnDictionaries() {
+    return new Dictionary[] {sources, methods, nodeVariables, paths, paths, types, parseFunctions, names, names};
+  }
+
+  private static final class Dictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    private int id(String string) {
+      if (string == null) return -1;
+      Integer id = ids.get(string);
+      if (id != null) return id;
+      strings.add(string);
+      ids.put(string, strings.size() - 1);
+      return strings.size() - 1;
+    }
+
+    private String string(int id) {
+      return id < 0 ? null : strings.get(id);
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeInt(strings.size());
+      for (String string : strings) out.writeUTF(string);
+    }
+
+    private void read(DataInputStream in, long limit) throws IOException {
+      int count = count(in, limit);
+      for (int i = 0; i < count; i++) id(in.readUTF());
+      if (strings.size() != count) throw new IOException("duplicate strings");
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package attempt2;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Walks a compilation unit once and emits an XMLAttribute for every parse call inside a method.
+ * Keeps the names and return types of the enclosing method declarations on a stack, rendered and interned once per
+ * method, and the {@link ElementPaths} of the enclosing classes, built when a class has its first attribute, so a
+ * visitor instance must not be shared between threads.
+ */
+class AttributeVisitor extends VoidVisitorAdapter<Consumer<XMLAttribute>> {
+  private final Deque<Method> methods = new ArrayDeque<>();
+  private final Deque<Type> types = new ArrayDeque<>();
+
+  @Override
+  public void visit(ClassOrInterfaceDeclaration n, Consumer<XMLAttribute> arg) {
+    types.push(new Type(n));
+    try {
+      super.visit(n, arg);
+    } finally {
+      types.pop();
+    }
+  }
+
+  @Override
+  public void visit(MethodDeclaration n, Consumer<XMLAttribute> arg) {
+    methods.push(new Method(n.getNameAsString().intern(), n.getType().asString().intern()));
+    try {
+      super.visit(n, arg);
+    } finally {
+      methods.pop();
+    }
+  }
+
+  @Override
+  public void visit(MethodCallExpr n, Consumer<XMLAttribute> arg) {
+    Method method = methods.peek();
+    if (method != null && ParseCallMatcher.matches(n)) {
+      Type type = types.peek();
+      arg.accept(new XMLAttribute(n, method.name, method.type, type == null ? null : type.elementPaths()));
+    }
+    super.visit(n, arg);
+  }
+
+  private static final class Method {
+    private final String name;
+    private final String type;
+
+    private Method(String name, String type) {
+      this.name = name;
+      this.type = type;
+    }
+  }
+
+  private static final class Type {
+    private final ClassOrInterfaceDeclaration declaration;
+    private ElementPaths elementPaths;
+
+    private Type(ClassOrInterfaceDeclaration declaration) {
+      this.declaration = declaration;
+    }
+
+    private ElementPaths elementPaths() {
+      if (elementPaths == null) elementPaths = ElementPaths.of(declaration);
+      return elementPaths;
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package attempt2;
+
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParseStart;
+import com.github.javaparser.Provider;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Extracts the attributes of many source files on a bounded ForkJoinPool.
+ * Each worker borrows its own JavaParser from a {@link ParserPool}, since StaticJavaParser shares one configuration
+ * between all callers.
+ */
+public class BatchExtraction {
+  private static final String GLOB_CHARS = "*?[{";
+
+  private final int threads;
+  private final ParserPool parsers;
+  private final SourceLoader loader;
+  private final ExtractionCache cache;
+  private final ConstantIndex constants;
+
+  public BatchExtraction(int threads) {
+    this(threads, null);
+  }
+
+  public BatchExtraction(int threads, ExtractionCache cache) {
+    this(threads, new ParserPool(), new SourceLoader(), cache, null);
+  }
+
+  /**
+   * @param parsers   shared with other extractions to keep reusing the same parser instances
+   * @param loader    maps and decodes the sources
+   * @param cache     skips sources whose content hash is already cached, may be null
+   * @param constants resolves the attribute constants of every extracted attribute, may be null
+   */
+  public BatchExtraction(int threads, ParserPool parsers, SourceLoader loader, ExtractionCache cache,
+                         ConstantIndex constants) {
+    if (threads < 1) throw new IllegalArgumentException("threads must be positive: " + threads);
+    this.threads = threads;
+    this.parsers = parsers;
+    this.loader = loader;
+    this.cache = cache;
+    this.constants = constants;
+  }
+
+  /**
+   * Expands a file, a directory (all *.java files below it) or a glob such as {@code src/**}{@code /*ParserXML.java}.
+   */
+  public static List<Path> collectSources(String input) throws IOException {
+    int firstGlobChar = indexOfGlobChar(input);
+    if (firstGlobChar < 0) {
+      Path path = Paths.get(input);
+      if (!Files.isDirectory(path)) return List.of(path);
+      return walk(path, p -> p.toString().endsWith(".java"));
+    }
+    int baseEnd = Math.max(input.lastIndexOf('/', firstGlobChar), input.lastIndexOf('\\', firstGlobChar));
+    Path base = Paths.get(baseEnd < 0 ? "" : input.substring(0, baseEnd + 1));
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+    return walk(base, matcher);
+  }
+
+  private static int indexOfGlobChar(String input) {
+    for (int i = 0; i < input.length(); i++) {
+      if (GLOB_CHARS.indexOf(input.charAt(i)) >= 0) return i;
+    }
+    return -1;
+  }
+
+  private static List<Path> walk(Path base, PathMatcher matcher) throws IOException {
+    try (Stream<Path> paths = Files.walk(base)) {
+      return paths.filter(Files::isRegularFile)
+        .filter(matcher::matches)
+        .sorted()
+        .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Extracts every source in parallel. The result is ordered by path, independent of scheduling.
+   */
+  public SortedMap<Path, List<XMLAttribute>> run(List<Path> sources) {
+    return run(sources, (BiConsumer<Path, RuntimeException>) null);
+  }
+
+  /**
+   * Extracts every source in parallel, leaving out the sources that fail to load or parse. Each failure is passed to
+   * onFailure on the calling thread, in the order of the sources; if onFailure is null the first one is thrown.
+   */
+  public SortedMap<Path, List<XMLAttribute>> run(List<Path> sources, BiConsumer<Path, RuntimeException> onFailure) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      Map<Path, RuntimeException> failures = new ConcurrentHashMap<>();
+      List<ForkJoinTask<List<XMLAttribute>>> tasks = new ArrayList<>(sources.size());
+      for (Path source : sources) {
+        tasks.add(pool.submit(() -> {
+          if (onFailure == null) return extract(source);
+          try {
+            return extract(source);
+          } catch (RuntimeException e) {
+            failures.put(source, e);
+            return null;
+          }
+        }));
+      }
+      SortedMap<Path, List<XMLAttribute>> result = new TreeMap<>();
+      for (int i = 0; i < sources.size(); i++) {
+        List<XMLAttribute> attributes = tasks.get(i).join();
+        if (attributes != null) {
+          result.put(sources.get(i), attributes);
+        } else {
+          onFailure.accept(sources.get(i), failures.get(sources.get(i)));
+        }
+      }
+      return result;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Extracts every source in parallel and streams the results to the sink in the order of the sources.
+   * At most a few results per thread are held back waiting for earlier sources, whatever the number of sources.
+   */
+  public void run(List<Path> sources, AttributeSink sink) {
+    int window = threads * 4;
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      Deque<ForkJoinTask<List<XMLAttribute>>> inFlight = new ArrayDeque<>(window);
+      int submitted = 0;
+      for (Path source : sources) {
+        while (submitted < sources.size() && inFlight.size() < window) {
+          Path next = sources.get(submitted++);
+          inFlight.add(pool.submit(() -> extract(next)));
+        }
+        sink.source(source);
+        inFlight.poll().join().forEach(sink::attribute);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Indexes the String constants of all sources in parallel, as input for the constants of a later extraction.
+   */
+  public ConstantIndex indexConstants(List<Path> sources) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<ForkJoinTask<ConstantIndex>> tasks = new ArrayList<>(sources.size());
+      for (Path source : sources) {
+        tasks.add(pool.submit(() -> {
+          ConstantIndex index = new ConstantIndex();
+          index.add(parse(load(source)));
+          return index;
+        }));
+      }
+      ConstantIndex index = new ConstantIndex();
+      tasks.forEach(task -> index.merge(task.join()));
+      return index;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Writes the cache, if there is one, with everything extracted so far.
+   */
+  public void saveCache() throws IOException {
+    if (cache != null) cache.save();
+  }
+
+  /**
+   * Parses the sources that may contain attributes in parallel and applies an analysis to each compilation unit.
+   * Sources ruled out by the {@link LexicalPrefilter}, or for which the analysis returns null, are left out.
+   */
+  public <T> SortedMap<Path, T> analyze(List<Path> sources, Function<CompilationUnit, T> analysis) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<ForkJoinTask<T>> tasks = new ArrayList<>(sources.size());
+      for (Path path : sources) {
+        tasks.add(pool.submit(() -> {
+          SourceLoader.Source source = load(path);
+          return LexicalPrefilter.mayContainAttributes(source.bytes()) ? analysis.apply(parse(source)) : null;
+        }));
+      }
+      SortedMap<Path, T> result = new TreeMap<>();
+      for (int i = 0; i < sources.size(); i++) {
+        T value = tasks.get(i).join();
+        if (value != null) result.put(sources.get(i), value);
+      }
+      return result;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Extracts a single source on the calling thread.
+   */
+  List<XMLAttribute> extract(Path source) {
+    List<XMLAttribute> attributes = extractUnresolved(source);
+    if (constants == null) return attributes;
+    List<XMLAttribute> resolved = new ArrayList<>(attributes.size());
+    for (XMLAttribute attribute : attributes) resolved.add(constants.resolve(attribute));
+    return resolved;
+  }
+
+  private List<XMLAttribute> extractUnresolved(Path path) {
+    SourceLoader.Source source = load(path);
+    if (!LexicalPrefilter.mayContainAttributes(source.bytes())) return List.of();
+    if (cache == null) return AttributeExtractor.extract(parse(source));
+    byte[] hash = ExtractionCache.hash(loader.charset(), source.bytes());
+    List<XMLAttribute> cached = cache.get(path, hash);
+    if (cached != null) return cached;
+    List<XMLAttribute> attributes = AttributeExtractor.extract(parse(source));
+    cache.put(path, hash, attributes);
+    return attributes;
+  }
+
+  private SourceLoader.Source load(Path path) {
+    try {
+      return loader.load(path);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private CompilationUnit parse(SourceLoader.Source source) {
+    Provider provider;
+    try {
+      provider = source.provider();
+    } catch (CharacterCodingException e) {
+      throw new RuntimeException(source.path() + ": not valid " + loader.charset().name() + ", see --charset: " + e);
+    }
+    ParseResult<CompilationUnit> result = parsers.apply(parser -> parser.parse(ParseStart.COMPILATION_UNIT, provider));
+    if (!result.isSuccessful() || result.getResult().isEmpty()) {
+      throw new RuntimeException(source.path() + ": " + result.getProblems());
+    }
+    return result.getResult().get();
+  }
+}
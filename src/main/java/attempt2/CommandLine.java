@@ -0,0 +1,198 @@
+package attempt2;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+final class CommandLine {
+  /**
+   * What a run does: at most one mode option may be given, without one the inputs are extracted. Each mode accepts
+   * only the options it uses.
+   */
+  enum Mode {
+    BUNDLED(null, "--format", "--output", "--resolve-constants"),
+    EXTRACT(null, "--format", "--output", "--threads", "--cache", "--charset", "--resolve-constants"),
+    WATCH("--watch", "--format", "--output", "--threads", "--cache", "--charset"),
+    GENERATE_STAX("--generate-stax", "--threads", "--charset"),
+    GENERATE_RECORDS("--generate-records", "--threads", "--charset"),
+    GENERATE_SNAPSHOT("--generate-snapshot", "--threads", "--charset"),
+    GENERATE_MEMO("--generate-memo", "--threads", "--charset"),
+    ANALYZE("--analyze", "--output", "--threads", "--charset"),
+    // Constants are always resolved when capturing, so --resolve-constants is accepted but changes nothing.
+    CAPTURE("--capture", "--output", "--threads", "--charset", "--resolve-constants");
+
+    private final String option;
+    private final Set<String> options;
+
+    Mode(String option, String... options) {
+      this.option = option;
+      this.options = Set.of(options);
+    }
+
+    private static Mode of(String option) {
+      for (Mode mode : values()) {
+        if (option.equals(mode.option)) return mode;
+      }
+      return null;
+    }
+  }
+
+  static final String USAGE = String.join(System.lineSeparator(),
+    "Usage: Parsing [options] [<file|directory|glob>...]",
+    "Extracts the XML attributes read by transaction parser sources. Without inputs the bundled parser.java is used.",
+    "  --format <format>      text (default), tsv, or plan for the attributes of each node variable numbered",
+    "                         in slot order",
+    "  --output <file>        write to a file instead of stdout",
+    "  --threads <n>          worker threads, default the number of processors",
+    "  --cache <file>         skip sources whose results are in this cache file and unchanged",
+    "  --charset <name>       source encoding, default " + SourceLoader.DEFAULT_CHARSET.name(),
+    "  --resolve-constants    resolve attribute constants against the String constants of all inputs",
+    "                         (parses every input once more)",
+    "  --watch                keep running and re-extract sources changing below the input directories",
+    "  --generate-stax <dir>  write a streaming XMLStreamReader counterpart of every input parser class below dir",
+    "                         instead of extracting",
+    "  --generate-records <dir>",
+    "                         write flat records per element of every input parser class and a loader filling",
+    "                         them in batches below dir instead of extracting",
+    "  --generate-snapshot <dir>",
+    "                         write an immutable snapshot of every input parser class, read once through its",
+    "                         next methods and processed in parallel, below dir instead of extracting",
+    "  --generate-memo <dir>  write a subclass of every input parser class memoizing the getters its other",
+    "                         getters call, per cursor position, below dir instead of extracting",
+    "  --analyze <analysis>   report instead of extracting: scans (getElementsByTagName walks repeated by the",
+    "                         next methods, with estimated redundant walks per document) or exceptions",
+    "                         (exceptions used for absent elements and optional fields, counted per class) or",
+    "                         getters (getters other getters call again per cursor position, to memoize)",
+    "  --capture <xml>        read the attributes of the input parsers from an XML document in one SAX pass",
+    "                         and write each matched element path with its attribute values",
+    "  --help                 show this text");
+
+  final List<String> inputs = new ArrayList<>();
+  Mode mode;
+  OutputFormat format = OutputFormat.TEXT;
+  Path output;
+  int threads = Runtime.getRuntime().availableProcessors();
+  Path cache;
+  Charset charset = SourceLoader.DEFAULT_CHARSET;
+  boolean resolveConstants;
+  Path generateStax;
+  Path generateRecords;
+  Path generateSnapshot;
+  Path generateMemo;
+  Analysis analysis;
+  Path capture;
+  boolean help;
+
+  private CommandLine() {
+  }
+
+  /**
+   * @throws IllegalArgumentException with a message for the user if the arguments are invalid
+   */
+  static CommandLine parse(String... args) {
+    CommandLine commandLine = new CommandLine();
+    Set<String> options = new LinkedHashSet<>();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (arg.startsWith("--") && !arg.equals("--help")) options.add(arg);
+      switch (arg) {
+        case "--format":
+          commandLine.format = OutputFormat.of(value(args, ++i, arg));
+          break;
+        case "--output":
+          commandLine.output = Paths.get(value(args, ++i, arg));
+          break;
+        case "--threads":
+          commandLine.threads = positive(value(args, ++i, arg), arg);
+          break;
+        case "--cache":
+          commandLine.cache = Paths.get(value(args, ++i, arg));
+          break;
+        case "--charset":
+          commandLine.charset = charset(value(args, ++i, arg));
+          break;
+        case "--resolve-constants":
+          commandLine.resolveConstants = true;
+          break;
+        case "--watch":
+          // a mode without a value
+          break;
+        case "--generate-stax":
+          commandLine.generateStax = Paths.get(value(args, ++i, arg));
+          break;
+        case "--generate-records":
+          commandLine.generateRecords = Paths.get(value(args, ++i, arg));
+          break;
+        case "--generate-snapshot":
+          commandLine.generateSnapshot = Paths.get(value(args, ++i, arg));
+          break;
+        case "--generate-memo":
+          commandLine.generateMemo = Paths.get(value(args, ++i, arg));
+          break;
+        case "--analyze":
+          commandLine.analysis = Analysis.of(value(args, ++i, arg));
+          break;
+        case "--capture":
+          commandLine.capture = Paths.get(value(args, ++i, arg));
+          break;
+        case "--help":
+          commandLine.help = true;
+          break;
+        default:
+          if (arg.startsWith("--")) throw new IllegalArgumentException("unknown option: " + arg);
+          commandLine.inputs.add(arg);
+      }
+    }
+    commandLine.mode = mode(options, commandLine.inputs.isEmpty());
+    return commandLine;
+  }
+
+  private static Mode mode(Set<String> options, boolean noInputs) {
+    Mode mode = null;
+    for (String option : options) {
+      Mode chosen = Mode.of(option);
+      if (chosen == null) continue;
+      if (mode != null) throw new IllegalArgumentException(mode.option + " cannot be combined with " + option);
+      mode = chosen;
+    }
+    if (mode == null) {
+      mode = noInputs ? Mode.BUNDLED : Mode.EXTRACT;
+    } else if (noInputs) {
+      throw new IllegalArgumentException(mode.option + " needs input sources");
+    }
+    for (String option : options) {
+      if (option.equals(mode.option) || mode.options.contains(option)) continue;
+      if (mode == Mode.BUNDLED) throw new IllegalArgumentException(option + " needs input sources");
+      if (mode == Mode.EXTRACT) throw new IllegalArgumentException(option + " is not used when extracting");
+      throw new IllegalArgumentException(option + " cannot be combined with " + mode.option);
+    }
+    return mode;
+  }
+
+  private static String value(String[] args, int i, String option) {
+    if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+    return args[i];
+  }
+
+  private static int positive(String value, String option) {
+    try {
+      int number = Integer.parseInt(value);
+      if (number > 0) return number;
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw new IllegalArgumentException(option + " must be a positive number: " + value);
+  }
+
+  private static Charset charset(String name) {
+    try {
+      return Charset.forName(name);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown charset: " + name);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.Expression;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Hash index of all String constants ({@code static final} fields and interface fields with a literal value) of a
+ * source set, built once so each XML attribute constant is resolved with a map lookup instead of the symbol solver.
+ * A simple name declared with different values by several types only resolves when qualified, e.g.
+ * {@code ForecastTypes.START_DATE}. Not thread-safe; build one index per thread and {@link #merge} them.
+ */
+public class ConstantIndex {
+  private static final String AMBIGUOUS = new String("<ambiguous>");
+
+  private final Map<String, String> bySimpleName = new HashMap<>();
+  private final Map<String, String> byQualifiedName = new HashMap<>();
+
+  public void add(CompilationUnit cu) {
+    for (FieldDeclaration field : cu.findAll(FieldDeclaration.class)) {
+      if (!isConstant(field)) continue;
+      if (!(field.getParentNode().orElse(null) instanceof TypeDeclaration)) continue;
+      TypeDeclaration<?> owner = (TypeDeclaration<?>) field.getParentNode().get();
+      for (VariableDeclarator variable : field.getVariables()) {
+        String value = variable.getInitializer().map(ConstantIndex::evaluate).orElse(null);
+        if (value == null) continue;
+        String name = variable.getNameAsString();
+        put(name, owner.getNameAsString() + "." + name, value);
+        owner.getFullyQualifiedName().ifPresent(type -> byQualifiedName.put(type + "." + name, value));
+      }
+    }
+  }
+
+  private static boolean isConstant(FieldDeclaration field) {
+    if (!field.getElementType().asString().equals("String") && !field.getElementType().asString().equals("java.lang.String")) {
+      return false;
+    }
+    boolean inInterface = field.getParentNode()
+      .filter(parent -> parent instanceof ClassOrInterfaceDeclaration && ((ClassOrInterfaceDeclaration) parent).isInterface())
+      .isPresent();
+    return inInterface || field.isStatic() && field.isFinal();
+  }
+
+  // String literals and concatenations of them, anything else is not a compile-time constant we can use.
+  private static String evaluate(Expression expression) {
+    if (expression.isStringLiteralExpr()) return expression.asStringLiteralExpr().asString();
+    if (expression.isEnclosedExpr()) return evaluate(expression.asEnclosedExpr().getInner());
+    if (expression.isBinaryExpr() && expression.asBinaryExpr().getOperator() == BinaryExpr.Operator.PLUS) {
+      String left = evaluate(expression.asBinaryExpr().getLeft());
+      String right = evaluate(expression.asBinaryExpr().getRight());
+      return left == null || right == null ? null : left + right;
+    }
+    return null;
+  }
+
+  private void put(String simpleName, String qualifiedName, String value) {
+    byQualifiedName.put(qualifiedName, value);
+    bySimpleName.merge(simpleName, value, (existing, added) -> existing.equals(added) ? existing : AMBIGUOUS);
+  }
+
+  public void merge(ConstantIndex other) {
+    byQualifiedName.putAll(other.byQualifiedName);
+    other.bySimpleName.forEach((name, value) ->
+      bySimpleName.merge(name, value, (existing, added) -> existing.equals(added) ? existing : AMBIGUOUS));
+  }
+
+  public static ConstantIndex of(List<ConstantIndex> indexes) {
+    ConstantIndex index = new ConstantIndex();
+    indexes.forEach(index::merge);
+    return index;
+  }
+
+  public int size() {
+    return byQualifiedName.size();
+  }
+
+  /**
+   * Resolves a reference as produced by {@link #reference}: a string literal, a simple name or a qualified name.
+   * Returns null when the constant is unknown or ambiguous.
+   */
+  public String resolve(String reference) {
+    if (reference == null) return null;
+    if (reference.length() > 1 && reference.startsWith("\"") && reference.endsWith("\"")) {
+      return reference.substring(1, reference.length() - 1);
+    }
+    int lastDot = reference.lastIndexOf('.');
+    if (lastDot < 0) {
+      String value = bySimpleName.get(reference);
+      return value == AMBIGUOUS ? null : value;
+    }
+    String value = byQualifiedName.get(reference);
+    if (value != null) return value;
+    int typeStart = reference.lastIndexOf('.', lastDot - 1) + 1;
+    return byQualifiedName.get(reference.substring(typeStart));
+  }
+
+  public XMLAttribute resolve(XMLAttribute attribute) {
+    String name = resolve(attribute.getAttributeConstant());
+    XMLAttribute resolved = name == null ? attribute : attribute.withAttributeName(name);
+    String path = resolvePath(attribute.getElementPath());
+    return path == null ? resolved : resolved.withResolvedElementPath(path);
+  }
+
+  /**
+   * Resolves every tag constant of an element path such as ORDER/ORDER_HEAD, or of each of its
+   * {@link ElementPaths#alternatives alternatives}, or returns null if any is unknown.
+   */
+  public String resolvePath(String elementPath) {
+    if (elementPath == null) return null;
+    StringJoiner paths = new StringJoiner(ElementPaths.ALTERNATIVE);
+    for (String alternative : ElementPaths.alternatives(elementPath)) {
+      StringJoiner path = new StringJoiner(ElementPaths.SEPARATOR);
+      for (String step : alternative.split(ElementPaths.SEPARATOR)) {
+        String name = resolve(step);
+        if (name == null) return null;
+        path.add(name);
+      }
+      paths.add(path.toString());
+    }
+    return paths.toString();
+  }
+
+  static String reference(Expression expression) {
+    if (expression.isNameExpr()) return expression.asNameExpr().getNameAsString();
+    if (expression.isFieldAccessExpr()) {
+      var fieldAccess = expression.asFieldAccessExpr();
+      return reference(fieldAccess.getScope()) + "." + fieldAccess.getNameAsString();
+    }
+    return expression.toString();
+  }
+}
@@ -0,0 +1,86 @@
+package attempt2;
+
+import com.github.javaparser.ast.Node;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the node variables of a class to the element paths they point to, by following their
+ * {@link NodeBindings} back to the document: orderHeadNode is ORDER/ORDER_HEAD, supplierIdNode is
+ * ORDER/ORDER_HEAD/SUPPLIER. Paths are written with the tag constants; each step is a getElementsByTagName, i.e. a
+ * descendant rather than a child of the step before. A variable bound in several places, such as supplierIdNode
+ * bound below the document in the constructor and below ORDER_HEAD in nextOrder, has every path it may point to.
+ * Built once per class, each variable is resolved once unless it is part of a binding cycle. Not thread-safe.
+ */
+public class ElementPaths {
+  static final String SEPARATOR = "/";
+  static final String ALTERNATIVE = "|";
+
+  private final NodeBindings bindings;
+  private final Map<String, List<String>> paths = new HashMap<>();
+  private final Set<String> resolving = new HashSet<>();
+  // Set when a cycle was cut short; what is resolved below the outermost variable is then incomplete.
+  private boolean cut;
+
+  public ElementPaths(NodeBindings bindings) {
+    this.bindings = bindings;
+  }
+
+  public static ElementPaths of(Node type) {
+    return new ElementPaths(NodeBindings.of(type));
+  }
+
+  /**
+   * All paths the variable is bound to, in binding order; empty if it is not bound in the class.
+   */
+  public List<String> paths(String variable) {
+    List<String> known = paths.get(variable);
+    if (known != null) return known;
+    if (!resolving.add(variable)) {
+      cut = true;
+      return List.of();
+    }
+    Set<String> result = new LinkedHashSet<>();
+    for (NodeBindings.Binding binding : bindings.get(variable)) {
+      List<String> parents = paths(binding.getParent());
+      if (binding.getKind() == NodeBindings.Kind.ITEM) {
+        result.addAll(parents);
+      } else if (parents.isEmpty()) {
+        result.add(binding.getTagConstant());
+      } else {
+        for (String parent : parents) result.add(parent + SEPARATOR + binding.getTagConstant());
+      }
+    }
+    resolving.remove(variable);
+    List<String> list = List.copyOf(result);
+    if (resolving.isEmpty()) {
+      paths.put(variable, list);
+      cut = false;
+    } else if (!cut) {
+      paths.put(variable, list);
+    }
+    return list;
+  }
+
+  /**
+   * All paths of the variable joined by {@link #ALTERNATIVE}, e.g. SUPPLIER|ORDER/ORDER_HEAD/SUPPLIER, or null if it
+   * is not bound.
+   */
+  public String path(String variable) {
+    List<String> paths = paths(variable);
+    return paths.isEmpty() ? null : String.join(ALTERNATIVE, paths);
+  }
+
+  /**
+   * The paths joined in a {@link #path(String) path}.
+   */
+  public static List<String> alternatives(String path) {
+    return List.of(path.split(Pattern.quote(ALTERNATIVE)));
+  }
+}
@@ -0,0 +1,296 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.ThrowStmt;
+import com.github.javaparser.ast.stmt.TryStmt;
+import com.github.javaparser.ast.type.Type;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Finds parser code that relies on exceptions for control flow: NullPointerExceptions caught around
+ * {@code getElementsByTagName(...).item(0)} lookups of absent elements, and missing optional fields signalled by
+ * throwing and catching an exception. Each of these builds an exception with a stack trace per absent value.
+ * <p>
+ * Reports per class a {@link ClassSummary}, the {@link CatchSite}s, and every {@code parse*Optional} call classified
+ * by the {@link Replacement} a non-throwing API could take.
+ */
+public class ExceptionFlowDetector {
+  static final String NULL_POINTER_EXCEPTION = "NullPointerException";
+  static final String FIELD_MISSING_EXCEPTION = "FieldMissingException";
+  static final String OPTIONAL_FIELD_MISSING_EXCEPTION = "OptionalFieldMissingException";
+
+  public enum Pattern {
+    /** A NullPointerException caught around element lookups, i.e. a null check by exception. */
+    NPE_NODE_LOOKUP,
+    /** A NullPointerException caught around anything else. */
+    NPE_OTHER,
+    /** A missing optional field caught and ignored, falling through to a default. */
+    OPTIONAL_SWALLOWED,
+    /** A missing optional field caught and replaced by a default in the handler. */
+    OPTIONAL_DEFAULT,
+    /** A missing required field caught only to throw a missing optional field instead, two exceptions per value. */
+    REQUIRED_TO_OPTIONAL
+  }
+
+  public enum Replacement {
+    /** The handler is empty, so a parse returning null (or a sentinel) and a null check would do. */
+    SENTINEL,
+    /** The handler substitutes a default, so an Optional with orElse would do. */
+    OR_ELSE,
+    /** The handler throws again; the caller's contract has to change first. */
+    RETHROWN,
+    /** Not caught in the method; the callers decide. */
+    PROPAGATED
+  }
+
+  public static final class CatchSite {
+    private final String className;
+    private final String methodName;
+    private final Pattern pattern;
+    private final String caught;
+    private final List<String> guarded;
+
+    CatchSite(String className, String methodName, Pattern pattern, String caught, List<String> guarded) {
+      this.className = className;
+      this.methodName = methodName;
+      this.pattern = pattern;
+      this.caught = caught;
+      this.guarded = guarded;
+    }
+
+    public String getClassName() {
+      return className;
+    }
+
+    public String getMethodName() {
+      return methodName;
+    }
+
+    public Pattern getPattern() {
+      return pattern;
+    }
+
+    public String getCaught() {
+      return caught;
+    }
+
+    /**
+     * The tags looked up or the parse functions called in the try block.
+     */
+    public List<String> getGuarded() {
+      return guarded;
+    }
+
+    @Override
+    public String toString() {
+      return methodName + "\t" + pattern + "\t" + caught + "\t" + String.join(",", guarded);
+    }
+  }
+
+  public static final class OptionalCall {
+    private final String className;
+    private final String methodName;
+    private final String parseFunction;
+    private final String attributeConstant;
+    private final Replacement replacement;
+
+    OptionalCall(String className, String methodName, String parseFunction, String attributeConstant,
+                 Replacement replacement) {
+      this.className = className;
+      this.methodName = methodName;
+      this.parseFunction = parseFunction;
+      this.attributeConstant = attributeConstant;
+      this.replacement = replacement;
+    }
+
+    public String getClassName() {
+      return className;
+    }
+
+    public String getMethodName() {
+      return methodName;
+    }
+
+    public String getParseFunction() {
+      return parseFunction;
+    }
+
+    public String getAttributeConstant() {
+      return attributeConstant;
+    }
+
+    public Replacement getReplacement() {
+      return replacement;
+    }
+
+    @Override
+    public String toString() {
+      return methodName + "\t" + parseFunction + "\t" + attributeConstant + "\t" + replacement;
+    }
+  }
+
+  public static final class ClassSummary {
+    private final String className;
+    private final Map<Pattern, Integer> catchSites = new EnumMap<>(Pattern.class);
+    private final Map<Replacement, Integer> optionalCalls = new EnumMap<>(Replacement.class);
+
+    ClassSummary(String className) {
+      this.className = className;
+    }
+
+    public String getClassName() {
+      return className;
+    }
+
+    public Map<Pattern, Integer> getCatchSites() {
+      return catchSites;
+    }
+
+    public Map<Replacement, Integer> getOptionalCalls() {
+      return optionalCalls;
+    }
+
+    @Override
+    public String toString() {
+      StringJoiner joiner = new StringJoiner(" ", className + "\t", "");
+      catchSites.forEach((pattern, count) -> joiner.add(pattern + "=" + count));
+      optionalCalls.forEach((replacement, count) -> joiner.add("optional:" + replacement + "=" + count));
+      return joiner.toString();
+    }
+  }
+
+  private ExceptionFlowDetector() {
+  }
+
+  /**
+   * Per class with any findings its summary, then its catch sites, then its optional parse calls.
+   */
+  public static List<Object> detect(CompilationUnit cu) {
+    List<Object> report = new ArrayList<>();
+    for (ClassOrInterfaceDeclaration type : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+      if (type.isInterface()) continue;
+      String className = type.getNameAsString();
+      ClassSummary summary = new ClassSummary(className);
+      List<Object> findings = new ArrayList<>();
+      for (MethodDeclaration method : type.getMethods()) {
+        for (CatchClause clause : method.findAll(CatchClause.class)) {
+          CatchSite site = catchSite(className, method.getNameAsString(), clause);
+          if (site == null) continue;
+          summary.catchSites.merge(site.pattern, 1, Integer::sum);
+          findings.add(site);
+        }
+        for (MethodCallExpr call : method.findAll(MethodCallExpr.class)) {
+          if (!ParseCallMatcher.matches(call)) continue;
+          XMLAttribute attribute = new XMLAttribute(call, method.getNameAsString(), method.getType().asString());
+          if (attribute.isRequired()) continue;
+          Replacement replacement = replacement(call);
+          summary.optionalCalls.merge(replacement, 1, Integer::sum);
+          findings.add(new OptionalCall(className, method.getNameAsString(), call.getNameAsString(),
+            attribute.getAttributeConstant(), replacement));
+        }
+      }
+      if (findings.isEmpty()) continue;
+      report.add(summary);
+      report.addAll(findings);
+    }
+    return report;
+  }
+
+  /**
+   * How the method handles a missing field of the parse functions it calls: the pattern of its first catch site of a
+   * missing field, or null if it lets the exceptions through to its callers.
+   */
+  static Pattern missingFieldPattern(MethodDeclaration method) {
+    for (CatchClause clause : method.findAll(CatchClause.class)) {
+      CatchSite site = catchSite(null, method.getNameAsString(), clause);
+      if (site != null && site.pattern != Pattern.NPE_NODE_LOOKUP && site.pattern != Pattern.NPE_OTHER) {
+        return site.pattern;
+      }
+    }
+    return null;
+  }
+
+  private static CatchSite catchSite(String className, String methodName, CatchClause clause) {
+    String caught = caught(clause);
+    TryStmt tryStmt = (TryStmt) clause.getParentNode().orElseThrow();
+    Pattern pattern;
+    List<String> guarded = new ArrayList<>();
+    if (catches(caught, NULL_POINTER_EXCEPTION)) {
+      for (MethodCallExpr call : tryStmt.getTryBlock().findAll(MethodCallExpr.class)) {
+        if (!call.getNameAsString().equals(NodeBindings.GET_ELEMENTS_BY_TAG_NAME) || call.getArguments().isEmpty()) {
+          continue;
+        }
+        guarded.add(ConstantIndex.reference(call.getArgument(call.getArguments().size() - 1)));
+      }
+      pattern = guarded.isEmpty() ? Pattern.NPE_OTHER : Pattern.NPE_NODE_LOOKUP;
+    } else if (catches(caught, OPTIONAL_FIELD_MISSING_EXCEPTION)) {
+      guarded.addAll(parseCalls(tryStmt));
+      pattern = clause.getBody().isEmpty() ? Pattern.OPTIONAL_SWALLOWED : Pattern.OPTIONAL_DEFAULT;
+    } else if (catches(caught, FIELD_MISSING_EXCEPTION) && throwsOptional(clause)) {
+      guarded.addAll(parseCalls(tryStmt));
+      pattern = Pattern.REQUIRED_TO_OPTIONAL;
+    } else {
+      return null;
+    }
+    return new CatchSite(className, methodName, pattern, caught, guarded);
+  }
+
+  private static String caught(CatchClause clause) {
+    Type type = clause.getParameter().getType();
+    if (type.isUnionType()) {
+      StringJoiner joiner = new StringJoiner("|");
+      type.asUnionType().getElements().forEach(element -> joiner.add(element.asString()));
+      return joiner.toString();
+    }
+    return type.asString();
+  }
+
+  // Whether any of the caught types, as returned by caught, is the exception of the simple name.
+  private static boolean catches(String caught, String exception) {
+    for (String type : caught.split("\\|")) {
+      if (type.endsWith(exception)) return true;
+    }
+    return false;
+  }
+
+  private static List<String> parseCalls(TryStmt tryStmt) {
+    List<String> calls = new ArrayList<>();
+    for (MethodCallExpr call : tryStmt.getTryBlock().findAll(MethodCallExpr.class)) {
+      if (ParseCallMatcher.matches(call)) calls.add(call.getNameAsString());
+    }
+    return calls;
+  }
+
+  private static boolean throwsOptional(CatchClause clause) {
+    for (ThrowStmt throwStmt : clause.getBody().findAll(ThrowStmt.class)) {
+      if (throwStmt.getExpression().toString().contains(OPTIONAL_FIELD_MISSING_EXCEPTION)) return true;
+    }
+    return false;
+  }
+
+  // The innermost try whose block contains the call and which catches a missing field decides.
+  private static Replacement replacement(MethodCallExpr call) {
+    for (Node node = call; node.getParentNode().isPresent(); node = node.getParentNode().get()) {
+      Node parent = node.getParentNode().get();
+      if (parent instanceof MethodDeclaration) break;
+      if (!(parent instanceof TryStmt) || node != ((TryStmt) parent).getTryBlock()) continue;
+      for (CatchClause clause : ((TryStmt) parent).getCatchClauses()) {
+        String caught = caught(clause);
+        if (!caught.contains(FIELD_MISSING_EXCEPTION) && !caught.equals("Exception")) continue;
+        if (clause.getBody().isEmpty()) return Replacement.SENTINEL;
+        return clause.getBody().findAll(ThrowStmt.class).isEmpty() ? Replacement.OR_ELSE : Replacement.RETHROWN;
+      }
+    }
+    return Replacement.PROPAGATED;
+  }
+}
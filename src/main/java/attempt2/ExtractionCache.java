@@ -0,0 +1,159 @@
+package attempt2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the extracted attributes of each source file together with a SHA-256 hash of its content and of the
+ * charset it was decoded with.
+ * The cache file is binary: a header with {@link #TOOL_VERSION}, the attributes of all sources as an
+ * {@link AttributeTable}, then per source its hash and its rows in the table. Loaded attributes stay in that table
+ * until a source asks for them. A cache written by another tool version, or a truncated or corrupt one, is ignored.
+ */
+public class ExtractionCache {
+  // Bump whenever the extraction result for an unchanged source can differ.
+  static final String TOOL_VERSION = "6";
+  private static final int MAGIC = 0x58415443;
+
+  private final Path file;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private AttributeTable loaded = new AttributeTable();
+  private volatile boolean dirty;
+
+  private ExtractionCache(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Reads the cache file; a missing, truncated or otherwise unreadable file gives an empty cache that save() replaces.
+   */
+  public static ExtractionCache load(Path file) {
+    ExtractionCache cache = new ExtractionCache(file);
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || !in.readUTF().equals(TOOL_VERSION)) return cache;
+      long size = Files.size(file);
+      cache.loaded = AttributeTable.read(in, size);
+      int entryCount = AttributeTable.count(in, size);
+      for (int i = 0; i < entryCount; i++) {
+        String source = in.readUTF();
+        byte[] hash = new byte[in.readUnsignedByte()];
+        in.readFully(hash);
+        int from = in.readInt();
+        int to = in.readInt();
+        if (from < 0 || from > to || to > cache.loaded.size()) throw new IOException("corrupt rows " + from);
+        cache.entries.put(source, new Entry(hash, null, from, to));
+      }
+    } catch (NoSuchFileException e) {
+      return cache;
+    } catch (IOException e) {
+      // EOFException and UTFDataFormatException for a truncated file, implausible counts and ids for a corrupt one.
+      return new ExtractionCache(file);
+    }
+    return cache;
+  }
+
+  public static byte[] hash(Charset charset, byte[] content) {
+    return hash(charset, ByteBuffer.wrap(content));
+  }
+
+  // The same bytes extract differently under another --charset, so the charset is part of the hash.
+  public static byte[] hash(Charset charset, ByteBuffer content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(charset.name().getBytes(StandardCharsets.US_ASCII));
+      digest.update((byte) 0);
+      digest.update(content);
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the cached attributes of the source, or null if it is unknown or its content hash changed.
+   */
+  public List<XMLAttribute> get(Path source, byte[] hash) {
+    Entry entry = entries.get(key(source));
+    return entry != null && Arrays.equals(entry.hash, hash) ? entry.attributes(loaded) : null;
+  }
+
+  /**
+   * Stores the attributes as extracted from the source alone, i.e. before constant resolution.
+   */
+  public void put(Path source, byte[] hash, List<XMLAttribute> attributes) {
+    entries.put(key(source), new Entry(hash, List.copyOf(attributes), 0, 0));
+    dirty = true;
+  }
+
+  private static String key(Path source) {
+    return source.toAbsolutePath().normalize().toString();
+  }
+
+  /**
+   * Writes the cache if anything was added, dropping entries of deleted sources.
+   */
+  public void save() throws IOException {
+    if (!dirty) return;
+    entries.keySet().removeIf(source -> !Files.exists(Path.of(source)));
+    AttributeTable table = new AttributeTable();
+    Map<String, Entry> saved = new LinkedHashMap<>();
+    entries.forEach((source, entry) -> {
+      int from = table.size();
+      for (XMLAttribute attribute : entry.attributes(loaded)) table.add(source, attribute);
+      saved.put(source, new Entry(entry.hash, null, from, table.size()));
+    });
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      out.writeUTF(TOOL_VERSION);
+      table.write(out);
+      out.writeInt(saved.size());
+      for (var e : saved.entrySet()) {
+        Entry entry = e.getValue();
+        out.writeUTF(e.getKey());
+        out.writeByte(entry.hash.length);
+        out.write(entry.hash);
+        out.writeInt(entry.from);
+        out.writeInt(entry.to);
+      }
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    dirty = false;
+  }
+
+  // Either the attributes put during this run, or the rows from (inclusive) to (exclusive) of the loaded table.
+  private static final class Entry {
+    private final byte[] hash;
+    private final List<XMLAttribute> attributes;
+    private final int from;
+    private final int to;
+
+    private Entry(byte[] hash, List<XMLAttribute> attributes, int from, int to) {
+      this.hash = hash;
+      this.attributes = attributes;
+      this.from = from;
+      this.to = to;
+    }
+
+    private List<XMLAttribute> attributes(AttributeTable loaded) {
+      return attributes != null ? attributes : loaded.attributes(from, to);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package attempt2;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * The pieces the generators share: names derived from the DOM class, declarations, and the fixed runtime that copies
+ * Dates and rethrows a getter's own exception. Emitters hand their lines to the generator, which indents them.
+ */
+final class GeneratedCode {
+  private GeneratedCode() {
+  }
+
+  // getOrderChangeOperation is GET_ORDER_CHANGE_OPERATION.
+  static String constantName(String camelCase) {
+    StringBuilder name = new StringBuilder();
+    for (char c : camelCase.toCharArray()) {
+      if (Character.isUpperCase(c)) name.append('_');
+      name.append(Character.toUpperCase(c));
+    }
+    return name.toString();
+  }
+
+  static String boxed(String type) {
+    switch (type) {
+      case "int":
+        return "Integer";
+      case "char":
+        return "Character";
+      case "boolean":
+      case "byte":
+      case "short":
+      case "long":
+      case "float":
+      case "double":
+        return Character.toUpperCase(type.charAt(0)) + type.substring(1);
+      default:
+        return type;
+    }
+  }
+
+  static String throwsClause(Collection<String> thrownTypes) {
+    return thrownTypes.isEmpty() ? "" : " throws " + String.join(", ", thrownTypes);
+  }
+
+  /**
+   * The statement rethrowing a captured failure through {@link #rethrow}, in the generated class of the given name.
+   */
+  static String rethrowIfFailed(String className, String failure) {
+    return "if (" + failure + " != null) " + className + ".<RuntimeException>rethrow(" + failure + ");";
+  }
+
+  // Dates are mutable, so every caller gets its own.
+  static void copy(Consumer<String> line) {
+    line.accept("private static Object copy(Object value) {");
+    line.accept("  return value instanceof Date ? new Date(((Date) value).getTime()) : value;");
+    line.accept("}");
+  }
+
+  static void rethrow(Consumer<String> line) {
+    line.accept("// Throws the getter's own exception, which its declaration allows.");
+    line.accept("@SuppressWarnings(\"unchecked\")");
+    line.accept("private static <E extends Exception> void rethrow(Exception failure) throws E {");
+    line.accept("  throw (E) failure;");
+    line.accept("}");
+  }
+}
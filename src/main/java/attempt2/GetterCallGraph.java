@@ -0,0 +1,256 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
+import com.github.javaparser.ast.stmt.CatchClause;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The calls between the methods without parameters of a DOM parser class, such as isReplaceAllOrderLinesOnChange
+ * calling getOrderChangeOperation. Such a getter only depends on the cursor position, so when other getters call it
+ * as well as the consumer, it is evaluated several times per position with the same inputs, repeating every attribute
+ * lookup, parse and caught exception.
+ * <p>
+ * A getter is a {@link Candidate} for memoization per cursor position if it is public and overridable, other methods
+ * of the class call it, and neither it nor anything it calls assigns a field or reads a field that methods other than
+ * the constructors and the cursor methods assign. Cursor methods are the overridable public next* methods without
+ * parameters; they are the only ones that have to clear a memo.
+ */
+public class GetterCallGraph {
+  static final String NEXT = "next";
+
+  public static final class Candidate {
+    private final String methodName;
+    private final List<String> callers;
+    private final int attributeReads;
+    private final int catchClauses;
+    private final String cursorMethod;
+
+    Candidate(String methodName, List<String> callers, int attributeReads, int catchClauses, String cursorMethod) {
+      this.methodName = methodName;
+      this.callers = callers;
+      this.attributeReads = attributeReads;
+      this.catchClauses = catchClauses;
+      this.cursorMethod = cursorMethod;
+    }
+
+    public String getMethodName() {
+      return methodName;
+    }
+
+    /**
+     * The calling methods, once per call site.
+     */
+    public List<String> getCallers() {
+      return callers;
+    }
+
+    /**
+     * Attribute parse calls per evaluation, including those of the methods it calls.
+     */
+    public int getAttributeReads() {
+      return attributeReads;
+    }
+
+    /**
+     * Catch clauses per evaluation, including those of the methods it calls.
+     */
+    public int getCatchClauses() {
+      return catchClauses;
+    }
+
+    /**
+     * The next method whose position the value depends on, or null if it depends on none.
+     */
+    public String getCursorMethod() {
+      return cursorMethod;
+    }
+
+    /**
+     * Attribute reads and catch clauses repeated per position if the consumer and every caller evaluate it once.
+     */
+    public int getRedundantWork() {
+      return callers.size() * (attributeReads + catchClauses);
+    }
+
+    @Override
+    public String toString() {
+      return methodName + "\tcalled by " + String.join(",", callers) + "\t" + attributeReads + " attribute reads, "
+        + catchClauses + " catch clauses per call\tper " + (cursorMethod == null ? "transaction" : cursorMethod
+        + " position");
+    }
+  }
+
+  private final Map<String, List<String>> calls = new LinkedHashMap<>();
+  private final Set<String> cursorMethods = new LinkedHashSet<>();
+  private final List<Candidate> candidates = new ArrayList<>();
+
+  private GetterCallGraph() {
+  }
+
+  public static GetterCallGraph of(ClassOrInterfaceDeclaration type, NodeBindings bindings) {
+    GetterCallGraph graph = new GetterCallGraph();
+    graph.build(type, bindings);
+    return graph;
+  }
+
+  /**
+   * The memoization candidates of all classes of the unit, most redundant work first.
+   */
+  public static List<Candidate> detect(CompilationUnit cu) {
+    List<Candidate> candidates = new ArrayList<>();
+    for (ClassOrInterfaceDeclaration type : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+      if (!type.isInterface()) candidates.addAll(of(type, NodeBindings.of(type)).candidates);
+    }
+    candidates.sort(Comparator.comparingInt(Candidate::getRedundantWork).reversed());
+    return candidates;
+  }
+
+  private void build(ClassOrInterfaceDeclaration type, NodeBindings bindings) {
+    Map<String, MethodDeclaration> methods = new LinkedHashMap<>();
+    for (MethodDeclaration method : type.getMethods()) {
+      if (!method.isStatic() && method.getParameters().isEmpty() && method.getBody().isPresent()) {
+        methods.putIfAbsent(method.getNameAsString(), method);
+      }
+    }
+    for (MethodDeclaration method : methods.values()) {
+      List<String> callees = new ArrayList<>();
+      for (MethodCallExpr call : method.findAll(MethodCallExpr.class)) {
+        if (isOwnCall(call) && call.getArguments().isEmpty() && methods.containsKey(call.getNameAsString())) {
+          callees.add(call.getNameAsString());
+        }
+      }
+      calls.put(method.getNameAsString(), callees);
+      boolean cursor = method.getNameAsString().startsWith(NEXT) && method.isPublic() && !method.isFinal()
+        && !type.isFinal() && !method.getType().isVoidType();
+      if (cursor) cursorMethods.add(method.getNameAsString());
+    }
+    Set<String> fields = new HashSet<>();
+    for (FieldDeclaration field : type.getFields()) {
+      if (!field.isStatic()) field.getVariables().forEach(variable -> fields.add(variable.getNameAsString()));
+    }
+    Set<String> assigning = new HashSet<>();
+    Set<String> unstable = new HashSet<>();
+    for (MethodDeclaration method : type.getMethods()) {
+      Set<String> assigned = assignedFields(method, fields);
+      if (assigned.isEmpty()) continue;
+      assigning.add(method.getNameAsString());
+      if (!cursorMethods.contains(method.getNameAsString())) unstable.addAll(assigned);
+    }
+    Map<String, String> cursors = bindings.cursors();
+    for (MethodDeclaration method : methods.values()) {
+      String name = method.getNameAsString();
+      if (!method.isPublic() || method.isFinal() || type.isFinal() || method.getType().isVoidType()
+        || cursorMethods.contains(name)) {
+        continue;
+      }
+      List<String> callers = new ArrayList<>();
+      calls.forEach((caller, callees) -> {
+        if (caller.equals(name)) return;
+        for (String callee : callees) if (callee.equals(name)) callers.add(caller);
+      });
+      if (callers.isEmpty()) continue;
+      int attributeReads = 0;
+      int catchClauses = 0;
+      String cursorMethod = null;
+      boolean stable = true;
+      for (String reached : reachable(name)) {
+        MethodDeclaration body = methods.get(reached);
+        if (assigning.contains(reached) || readsAny(body, unstable) || callsAny(body, assigning)) stable = false;
+        for (MethodCallExpr call : body.findAll(MethodCallExpr.class)) {
+          if (!ParseCallMatcher.matches(call)) continue;
+          attributeReads++;
+          XMLAttribute attribute = new XMLAttribute(call, reached, body.getType().asString());
+          String list = bindings.cursor(attribute.getXmlNodeVariable());
+          if (cursorMethod == null && list != null) cursorMethod = cursors.get(list);
+        }
+        catchClauses += body.findAll(CatchClause.class).size();
+      }
+      if (stable) candidates.add(new Candidate(name, callers, attributeReads, catchClauses, cursorMethod));
+    }
+  }
+
+  private static boolean isOwnCall(MethodCallExpr call) {
+    return call.getScope().isEmpty() || call.getScope().get().isThisExpr();
+  }
+
+  private Set<String> reachable(String method) {
+    Set<String> reached = new LinkedHashSet<>();
+    Deque<String> pending = new ArrayDeque<>();
+    pending.add(method);
+    while (!pending.isEmpty()) {
+      String next = pending.poll();
+      if (reached.add(next)) pending.addAll(calls.getOrDefault(next, List.of()));
+    }
+    return reached;
+  }
+
+  private static Set<String> assignedFields(MethodDeclaration method, Set<String> fields) {
+    Set<String> assigned = new HashSet<>();
+    for (AssignExpr assign : method.findAll(AssignExpr.class)) {
+      String variable = NodeBindings.variable(assign.getTarget());
+      if (fields.contains(variable)) assigned.add(variable);
+    }
+    for (UnaryExpr unary : method.findAll(UnaryExpr.class)) {
+      UnaryExpr.Operator operator = unary.getOperator();
+      boolean step = operator == UnaryExpr.Operator.PREFIX_INCREMENT || operator == UnaryExpr.Operator.PREFIX_DECREMENT
+        || operator == UnaryExpr.Operator.POSTFIX_INCREMENT || operator == UnaryExpr.Operator.POSTFIX_DECREMENT;
+      if (!step) continue;
+      String variable = NodeBindings.variable(unary.getExpression());
+      if (fields.contains(variable)) assigned.add(variable);
+    }
+    return assigned;
+  }
+
+  private static boolean readsAny(MethodDeclaration method, Set<String> fields) {
+    for (NameExpr name : method.findAll(NameExpr.class)) {
+      if (fields.contains(name.getNameAsString())) return true;
+    }
+    for (FieldAccessExpr access : method.findAll(FieldAccessExpr.class)) {
+      if (access.getScope().isThisExpr() && fields.contains(access.getNameAsString())) return true;
+    }
+    return false;
+  }
+
+  private static boolean callsAny(MethodDeclaration method, Set<String> methods) {
+    for (MethodCallExpr call : method.findAll(MethodCallExpr.class)) {
+      if (isOwnCall(call) && methods.contains(call.getNameAsString())) return true;
+    }
+    return false;
+  }
+
+  /**
+   * The methods without parameters each method calls on this, once per call site.
+   */
+  public Map<String, List<String>> getCalls() {
+    return calls;
+  }
+
+  /**
+   * The next methods a per-position memo has to be cleared in.
+   */
+  public Set<String> getCursorMethods() {
+    return cursorMethods;
+  }
+
+  public List<Candidate> getCandidates() {
+    return candidates;
+  }
+}
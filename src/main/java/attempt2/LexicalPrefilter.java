@@ -0,0 +1,45 @@
+package attempt2;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decides from the raw bytes whether a source can contain attribute parse calls at all: like {@link ParseCallMatcher}
+ * it needs getAttributeValue and a parse* function of any name. Files failing this never reach JavaParser.
+ * The tokens are ASCII, so the check holds for ISO-8859-1 and UTF-8 sources alike.
+ */
+final class LexicalPrefilter {
+  private static final Token GET_ATTRIBUTE_VALUE = new Token(ParseCallMatcher.GET_ATTRIBUTE_VALUE);
+  private static final Token PARSE = new Token(ParseCallMatcher.PARSE_PREFIX);
+
+  private LexicalPrefilter() {
+  }
+
+  static boolean mayContainAttributes(ByteBuffer content) {
+    return GET_ATTRIBUTE_VALUE.in(content) && PARSE.in(content);
+  }
+
+  // Boyer-Moore-Horspool search over absolute buffer positions, so the buffer's position is left untouched.
+  private static final class Token {
+    private final byte[] bytes;
+    private final int[] shift = new int[256];
+
+    private Token(String token) {
+      bytes = token.getBytes(StandardCharsets.US_ASCII);
+      Arrays.fill(shift, bytes.length);
+      for (int i = 0; i < bytes.length - 1; i++) shift[bytes[i] & 0xff] = bytes.length - 1 - i;
+    }
+
+    private boolean in(ByteBuffer content) {
+      int last = bytes.length - 1;
+      int end = content.limit();
+      for (int i = content.position(); i + last < end; i += shift[content.get(i + last) & 0xff]) {
+        int j = last;
+        while (j >= 0 && content.get(i + j) == bytes[j]) j--;
+        if (j < 0) return true;
+      }
+      return false;
+    }
+  }
+}
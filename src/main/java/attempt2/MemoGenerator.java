@@ -0,0 +1,136 @@
+package attempt2;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a subclass of a DOM parser class that memoizes the {@link GetterCallGraph.Candidate memoization
+ * candidates} per cursor position: the first call evaluates the getter, later calls, including the calls from the
+ * class's own getters, return the same value or throw the same exception, until the next call of any next method.
+ * Dates are copied on the way out. While the superclass constructor runs, calls are passed through.
+ */
+public class MemoGenerator {
+  static final String SUFFIX = "Memo";
+
+  private final ParserClassModel model;
+  private final List<ParserClassModel.Accessor> getters = new ArrayList<>();
+  private final List<ParserClassModel.Accessor> cursors = new ArrayList<>();
+  private final StringBuilder out = new StringBuilder();
+  private int indent;
+
+  private MemoGenerator(ParserClassModel model) {
+    this.model = model;
+    GetterCallGraph graph = model.getCallGraph();
+    for (GetterCallGraph.Candidate candidate : graph.getCandidates()) {
+      ParserClassModel.Accessor accessor = model.getAccessors().get(candidate.getMethodName());
+      if (accessor != null && accessor.isOverridable()) getters.add(accessor);
+    }
+    for (String method : graph.getCursorMethods()) {
+      ParserClassModel.Accessor accessor = model.getAccessors().get(method);
+      if (accessor != null) cursors.add(accessor);
+    }
+  }
+
+  public static String className(ParserClassModel model) {
+    return model.getClassName() + SUFFIX;
+  }
+
+  public static String generate(ParserClassModel model) {
+    return new MemoGenerator(model).generate();
+  }
+
+  private String generate() {
+    if (model.getPackageName() != null) {
+      line("package " + model.getPackageName() + ";");
+      line("");
+    }
+    Set<String> imports = new LinkedHashSet<>(List.of("java.util.Arrays", "java.util.Date"));
+    imports.addAll(model.getImports());
+    imports.forEach(name -> line("import " + name + ";"));
+    line("");
+    line("/**");
+    line(" * Memoizes getters of " + model.getClassName() + " that its other getters call, per cursor position;");
+    line(" * generated by " + MemoGenerator.class.getName() + ", do not edit. Every next method clears them.");
+    line(" */");
+    line("public class " + className(model) + " extends " + model.getClassName() + " {");
+    indent++;
+    for (int i = 0; i < getters.size(); i++) {
+      line("private static final int " + GeneratedCode.constantName(getters.get(i).getName()) + " = " + i + ";");
+    }
+    line("");
+    line("// Null while the constructor of " + model.getClassName() + " runs.");
+    line("private final Object[] values = new Object[" + getters.size() + "];");
+    line("private final Exception[] failures = new Exception[" + getters.size() + "];");
+    line("private final boolean[] read = new boolean[" + getters.size() + "];");
+    for (ParserClassModel.Constructor constructor : model.getConstructors()) {
+      line("");
+      line("public " + className(model) + "(" + String.join(", ", constructor.getParameters()) + ")"
+        + GeneratedCode.throwsClause(constructor.getThrownTypes()) + " {");
+      line("  super(" + String.join(", ", constructor.getParameterNames()) + ");");
+      line("}");
+    }
+    getters.forEach(this::getter);
+    cursors.forEach(this::cursor);
+    runtime();
+    indent--;
+    line("}");
+    return out.toString();
+  }
+
+  private void getter(ParserClassModel.Accessor getter) {
+    String index = GeneratedCode.constantName(getter.getName());
+    line("");
+    line("@Override");
+    line("public " + getter.getType() + " " + getter.getName() + "()"
+      + GeneratedCode.throwsClause(getter.getThrownTypes()) + " {");
+    line("  if (read == null) return super." + getter.getName() + "();");
+    line("  if (!read[" + index + "]) {");
+    line("    try {");
+    line("      values[" + index + "] = super." + getter.getName() + "();");
+    line("    } catch (Exception e) {");
+    line("      failures[" + index + "] = e;");
+    line("    }");
+    line("    read[" + index + "] = true;");
+    line("  }");
+    line("  return (" + GeneratedCode.boxed(getter.getType()) + ") value(" + index + ");");
+    line("}");
+  }
+
+  private void cursor(ParserClassModel.Accessor cursor) {
+    line("");
+    line("@Override");
+    line("public " + cursor.getType() + " " + cursor.getName() + "()"
+      + GeneratedCode.throwsClause(cursor.getThrownTypes()) + " {");
+    line("  " + cursor.getType() + " moved = super." + cursor.getName() + "();");
+    line("  clear();");
+    line("  return moved;");
+    line("}");
+  }
+
+  // The fixed part: clearing, rethrowing and copying.
+  private void runtime() {
+    line("");
+    line("private void clear() {");
+    line("  if (read == null) return;");
+    line("  Arrays.fill(read, false);");
+    line("  Arrays.fill(values, null);");
+    line("  Arrays.fill(failures, null);");
+    line("}");
+    line("");
+    line("private Object value(int index) {");
+    line("  " + GeneratedCode.rethrowIfFailed(className(model), "failures[index]"));
+    line("  return copy(values[index]);");
+    line("}");
+    line("");
+    GeneratedCode.copy(this::line);
+    line("");
+    GeneratedCode.rethrow(this::line);
+  }
+
+  private void line(String text) {
+    if (!text.isEmpty()) out.append("  ".repeat(indent));
+    out.append(text).append('\n');
+  }
+}
@@ -0,0 +1,265 @@
+package attempt2;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where the node variables of a DOM parser class come from: every assignment of a
+ * {@code getElementsByTagName(TAG)} result, its {@code .item(0)}, or an {@code .item(index)} of another variable.
+ * Variables keep all their bindings in source order, e.g. customerIdNode is bound once below the document and once
+ * below the order head.
+ */
+public class NodeBindings {
+  static final String GET_ELEMENTS_BY_TAG_NAME = "getElementsByTagName";
+  static final String ITEM = "item";
+
+  public enum Kind {
+    /** The NodeList of all elements with the tag. */
+    LIST,
+    /** The first element with the tag, {@code getElementsByTagName(TAG).item(0)}. */
+    NODE,
+    /** An element of another list variable, {@code list.item(index)}. */
+    ITEM
+  }
+
+  public static final class Binding {
+    private final String variable;
+    private final Kind kind;
+    private final String tagConstant;
+    private final String parent;
+    private final String methodName;
+
+    Binding(String variable, Kind kind, String tagConstant, String parent, String methodName) {
+      this.variable = variable;
+      this.kind = kind;
+      this.tagConstant = tagConstant;
+      this.parent = parent;
+      this.methodName = methodName;
+    }
+
+    public String getVariable() {
+      return variable;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * The tag constant as written, e.g. ORDER_LINE or ForecastTypes.CUMULATED; null for {@link Kind#ITEM}.
+     */
+    public String getTagConstant() {
+      return tagConstant;
+    }
+
+    /**
+     * The variable searched below (or, for {@link Kind#ITEM}, indexed), e.g. doc or orderHeadNode.
+     */
+    public String getParent() {
+      return parent;
+    }
+
+    public String getMethodName() {
+      return methodName;
+    }
+
+    @Override
+    public String toString() {
+      return variable + " = " + (kind == Kind.ITEM ? parent + ".item(..)" : parent + "/" + tagConstant + " " + kind);
+    }
+  }
+
+  private final Map<String, List<Binding>> byVariable = new LinkedHashMap<>();
+  private final Map<String, String> cursorMethods = new LinkedHashMap<>();
+
+  public static NodeBindings of(Node root) {
+    NodeBindings bindings = new NodeBindings();
+    for (MethodDeclaration method : root.findAll(MethodDeclaration.class)) {
+      bindings.addCursorMethod(method);
+    }
+    root.walk(node -> {
+      if (node instanceof AssignExpr && ((AssignExpr) node).getOperator() == AssignExpr.Operator.ASSIGN) {
+        AssignExpr assign = (AssignExpr) node;
+        String variable = variable(assign.getTarget());
+        if (variable != null) bindings.add(variable, assign.getValue(), assign);
+      } else if (node instanceof VariableDeclarator) {
+        VariableDeclarator declarator = (VariableDeclarator) node;
+        declarator.getInitializer().ifPresent(value -> bindings.add(declarator.getNameAsString(), value, declarator));
+      }
+    });
+    return bindings;
+  }
+
+  // The next* method iterating a list is the one comparing its index against list.getLength().
+  private void addCursorMethod(MethodDeclaration method) {
+    if (!method.getNameAsString().startsWith("next")) return;
+    for (MethodCallExpr call : method.findAll(MethodCallExpr.class)) {
+      if (!call.getNameAsString().equals("getLength")) continue;
+      String list = call.getScope().map(NodeBindings::variable).orElse(null);
+      if (list != null) cursorMethods.putIfAbsent(list, method.getNameAsString());
+    }
+  }
+
+  private void add(String variable, Expression value, Node at) {
+    Expression expression = strip(value);
+    if (!expression.isMethodCallExpr()) return;
+    MethodCallExpr call = expression.asMethodCallExpr();
+    Binding binding;
+    if (call.getNameAsString().equals(ITEM) && call.getScope().isPresent()) {
+      Expression scope = strip(call.getScope().get());
+      if (isGetElementsByTagName(scope)) {
+        binding = searchBinding(variable, Kind.NODE, scope.asMethodCallExpr(), at);
+      } else {
+        String list = variable(scope);
+        binding = list == null ? null : new Binding(variable, Kind.ITEM, null, list, methodName(at));
+      }
+    } else if (isGetElementsByTagName(call)) {
+      binding = searchBinding(variable, Kind.LIST, call, at);
+    } else {
+      binding = null;
+    }
+    if (binding != null) byVariable.computeIfAbsent(variable, v -> new ArrayList<>()).add(binding);
+  }
+
+  private static boolean isGetElementsByTagName(Expression expression) {
+    return expression.isMethodCallExpr()
+      && expression.asMethodCallExpr().getNameAsString().equals(GET_ELEMENTS_BY_TAG_NAME);
+  }
+
+  // element.getElementsByTagName(TAG) or a utility such as MAComUtil.getElementsByTagName(node, TAG).
+  private static Binding searchBinding(String variable, Kind kind, MethodCallExpr call, Node at) {
+    var args = call.getArguments();
+    if (args.size() == 1 && call.getScope().isPresent()) {
+      return new Binding(variable, kind, ConstantIndex.reference(args.get(0)), variable(call.getScope().get()),
+        methodName(at));
+    }
+    if (args.size() == 2) {
+      return new Binding(variable, kind, ConstantIndex.reference(args.get(1)), variable(args.get(0)), methodName(at));
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String methodName(Node at) {
+    return at.findAncestor(MethodDeclaration.class).map(MethodDeclaration::getNameAsString).orElse(null);
+  }
+
+  /**
+   * The variable an expression stands for: a name, this.name, or list.item(index) standing for the list.
+   */
+  static String variable(Expression expression) {
+    Expression e = strip(expression);
+    if (e.isNameExpr()) return e.asNameExpr().getNameAsString();
+    if (e.isFieldAccessExpr() && e.asFieldAccessExpr().getScope().isThisExpr()) {
+      return e.asFieldAccessExpr().getNameAsString();
+    }
+    if (e.isMethodCallExpr() && e.asMethodCallExpr().getNameAsString().equals(ITEM)) {
+      return e.asMethodCallExpr().getScope().map(NodeBindings::variable).orElse(null);
+    }
+    return null;
+  }
+
+  static Expression strip(Expression expression) {
+    Expression e = expression;
+    while (e.isEnclosedExpr() || e.isCastExpr()) {
+      e = e.isEnclosedExpr() ? e.asEnclosedExpr().getInner() : e.asCastExpr().getExpression();
+    }
+    return e;
+  }
+
+  public List<Binding> get(String variable) {
+    return byVariable.getOrDefault(variable, List.of());
+  }
+
+  public Set<String> variables() {
+    return byVariable.keySet();
+  }
+
+  /**
+   * The tag constant of the elements a variable refers to, following item aliases to their list; null if unbound.
+   */
+  public String tag(String variable) {
+    Binding binding = tagBinding(variable, new HashSet<>());
+    return binding == null ? null : binding.tagConstant;
+  }
+
+  /**
+   * The first binding carrying a tag, following item aliases, or null if the variable is unbound.
+   */
+  public Binding tagBinding(String variable) {
+    return tagBinding(variable, new HashSet<>());
+  }
+
+  private Binding tagBinding(String variable, Set<String> seen) {
+    if (variable == null || !seen.add(variable)) return null;
+    for (Binding binding : get(variable)) {
+      if (binding.kind != Kind.ITEM) return binding;
+    }
+    for (Binding binding : get(variable)) {
+      Binding aliased = tagBinding(binding.parent, seen);
+      if (aliased != null) return aliased;
+    }
+    return null;
+  }
+
+  /**
+   * The cursor list a variable is, or is searched below, or else whose next method assigns it, e.g. orderLineNodeList
+   * for orderLineNode and customerProdIdNode; null if none.
+   */
+  public String cursor(String variable) {
+    return cursor(variable, new HashSet<>(), cursors());
+  }
+
+  /**
+   * The first cursor list up the bindings of a variable, not counting the variable itself, e.g. orderNodeList for
+   * orderLineNodeList; null if none.
+   */
+  public String enclosingCursor(String variable) {
+    Set<String> seen = new HashSet<>();
+    seen.add(variable);
+    return enclosingCursor(variable, seen, cursors());
+  }
+
+  private String cursor(String variable, Set<String> seen, Map<String, String> cursors) {
+    if (variable == null || !seen.add(variable)) return null;
+    if (cursors.containsKey(variable)) return variable;
+    String cursor = enclosingCursor(variable, seen, cursors);
+    if (cursor != null) return cursor;
+    for (Binding binding : get(variable)) {
+      for (var entry : cursors.entrySet()) {
+        if (entry.getValue().equals(binding.methodName)) return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  private String enclosingCursor(String variable, Set<String> seen, Map<String, String> cursors) {
+    for (Binding binding : get(variable)) {
+      String cursor = cursor(binding.parent, seen, cursors);
+      if (cursor != null) return cursor;
+    }
+    return null;
+  }
+
+  /**
+   * List variables that a next* method iterates, mapped to that method, e.g. orderLineNodeList to nextOrderLine.
+   */
+  public Map<String, String> cursors() {
+    Map<String, String> cursors = new LinkedHashMap<>();
+    cursorMethods.forEach((list, method) -> {
+      if (tag(list) != null) cursors.put(list, method);
+    });
+    return cursors;
+  }
+}
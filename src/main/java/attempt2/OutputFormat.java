@@ -0,0 +1,29 @@
+package attempt2;
+
+import java.io.Writer;
+import java.util.Locale;
+import java.util.function.Function;
+
+public enum OutputFormat {
+  TEXT(WriterSink::new),
+  TSV(TsvSink::new),
+  PLAN(PlanSink::new);
+
+  private final Function<Writer, AttributeSink> sink;
+
+  OutputFormat(Function<Writer, AttributeSink> sink) {
+    this.sink = sink;
+  }
+
+  public AttributeSink sink(Writer out) {
+    return sink.apply(out);
+  }
+
+  public static OutputFormat of(String name) {
+    try {
+      return valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("unknown format: " + name);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package attempt2;
+
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+/**
+ * Recognizes {@code parseXxx(getAttributeValue(node, ...), ...)} calls by looking at names and argument nodes only,
+ * so no AST node has to be pretty printed to decide a match.
+ */
+final class ParseCallMatcher {
+  static final String GET_ATTRIBUTE_VALUE = "getAttributeValue";
+  static final String PARSE_PREFIX = "parse";
+
+  private ParseCallMatcher() {
+  }
+
+  static boolean matches(MethodCallExpr methodCallExpr) {
+    return methodCallExpr.getNameAsString().startsWith(PARSE_PREFIX)
+      && methodCallExpr.getArguments().isNonEmpty()
+      && isGetAttributeValue(methodCallExpr.getArgument(0));
+  }
+
+  static boolean isGetAttributeValue(Expression expression) {
+    return expression.isMethodCallExpr() && expression.asMethodCallExpr().getNameAsString().equals(GET_ATTRIBUTE_VALUE);
+  }
+}
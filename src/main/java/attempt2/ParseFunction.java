@@ -0,0 +1,143 @@
+package attempt2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * What a parse function such as parseStringRequired or parseDateOptional_TimeIsOptional returns: the kind of value,
+ * whether a missing attribute is an error, and for dates whether a time part is allowed.
+ * <p>
+ * The known names are put into a perfect hash table once (hash and displace: a displacement seed per bucket of the
+ * String hash, chosen so no two names share a slot), so {@link #of} costs one seed lookup, one slot lookup and one
+ * equals. Unknown names are not an error: they get {@link ValueKind#UNKNOWN}, required unless the name ends with
+ * Optional, and {@link #isKnown()} false so callers can report them.
+ */
+public final class ParseFunction {
+  public enum ValueKind {
+    STRING, BOOLEAN, INT, LONG, FLOAT, DOUBLE, DATE, CODED_VALUE, UNKNOWN
+  }
+
+  public enum TimePart {
+    /** Not a date. */
+    NONE,
+    NOT_ALLOWED,
+    OPTIONAL,
+    REQUIRED
+  }
+
+  private static final ParseFunction[] TABLE;
+  private static final int[] SEEDS;
+  private static final int MASK;
+
+  static {
+    List<ParseFunction> known = known();
+    int size = Integer.highestOneBit(known.size() * 2 - 1) << 1;
+    MASK = size - 1;
+    TABLE = new ParseFunction[size];
+    SEEDS = new int[size];
+    List<List<ParseFunction>> buckets = new ArrayList<>();
+    for (int i = 0; i < size; i++) buckets.add(new ArrayList<>());
+    for (ParseFunction function : known) buckets.get(function.name.hashCode() & MASK).add(function);
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) order[i] = i;
+    Arrays.sort(order, Comparator.comparingInt((Integer bucket) -> buckets.get(bucket).size()).reversed());
+    for (int bucket : order) {
+      List<ParseFunction> functions = buckets.get(bucket);
+      if (functions.isEmpty()) break;
+      SEEDS[bucket] = displace(functions);
+    }
+  }
+
+  private final String name;
+  private final ValueKind valueKind;
+  private final boolean required;
+  private final TimePart timePart;
+
+  private ParseFunction(String name, ValueKind valueKind, boolean required, TimePart timePart) {
+    this.name = name;
+    this.valueKind = valueKind;
+    this.required = required;
+    this.timePart = timePart;
+  }
+
+  // Naming conventions of the MACom parsers: parse<Kind><Required|Optional>, lower and upper case primitive names,
+  // and the date variants with a suffix for the time part. parseDouble without a suffix is required.
+  private static List<ParseFunction> known() {
+    List<ParseFunction> known = new ArrayList<>();
+    String[][] kinds = {
+      {"String", "STRING"}, {"boolean", "BOOLEAN"}, {"Boolean", "BOOLEAN"}, {"int", "INT"}, {"Int", "INT"},
+      {"long", "LONG"}, {"Long", "LONG"}, {"float", "FLOAT"}, {"Float", "FLOAT"}, {"double", "DOUBLE"},
+      {"Double", "DOUBLE"}, {"CodedValue", "CODED_VALUE"}
+    };
+    for (String[] kind : kinds) {
+      ValueKind valueKind = ValueKind.valueOf(kind[1]);
+      known.add(new ParseFunction("parse" + kind[0] + "Required", valueKind, true, TimePart.NONE));
+      known.add(new ParseFunction("parse" + kind[0] + "Optional", valueKind, false, TimePart.NONE));
+    }
+    known.add(new ParseFunction("parseDouble", ValueKind.DOUBLE, true, TimePart.NONE));
+    String[][] times = {{"", "OPTIONAL"}, {"_TimeNotAllowed", "NOT_ALLOWED"}, {"_TimeIsOptional", "OPTIONAL"},
+      {"_TimeRequired", "REQUIRED"}};
+    for (String[] time : times) {
+      TimePart timePart = TimePart.valueOf(time[1]);
+      known.add(new ParseFunction("parseDateRequired" + time[0], ValueKind.DATE, true, timePart));
+      known.add(new ParseFunction("parseDateOptional" + time[0], ValueKind.DATE, false, timePart));
+    }
+    known.add(new ParseFunction("parseDateOptionalTime", ValueKind.DATE, true, TimePart.OPTIONAL));
+    known.add(new ParseFunction("parseDateRequiredTime", ValueKind.DATE, true, TimePart.REQUIRED));
+    return known;
+  }
+
+  private static int displace(List<ParseFunction> functions) {
+    for (int seed = 1; ; seed++) {
+      int[] slots = new int[functions.size()];
+      boolean free = true;
+      for (int i = 0; i < functions.size() && free; i++) {
+        slots[i] = slot(functions.get(i).name.hashCode(), seed);
+        if (TABLE[slots[i]] != null) free = false;
+        for (int j = 0; j < i && free; j++) free = slots[j] != slots[i];
+      }
+      if (!free) continue;
+      for (int i = 0; i < functions.size(); i++) TABLE[slots[i]] = functions.get(i);
+      return seed;
+    }
+  }
+
+  private static int slot(int hash, int seed) {
+    int mixed = (hash ^ seed * 0x9E3779B9) * 0x85EBCA6B;
+    return (mixed ^ mixed >>> 16) & MASK;
+  }
+
+  public static ParseFunction of(String name) {
+    int hash = name.hashCode();
+    ParseFunction function = TABLE[slot(hash, SEEDS[hash & MASK])];
+    if (function != null && function.name.equals(name)) return function;
+    return new ParseFunction(name, ValueKind.UNKNOWN, !name.endsWith("Optional"), TimePart.NONE);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public ValueKind getValueKind() {
+    return valueKind;
+  }
+
+  public boolean isRequired() {
+    return required;
+  }
+
+  public TimePart getTimePart() {
+    return timePart;
+  }
+
+  public boolean isKnown() {
+    return valueKind != ValueKind.UNKNOWN;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,308 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithName;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.Statement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * What the generators need to know about one DOM parser class: its name and imports, the attributes its getters read,
+ * the {@link NodeBindings} of its node variables, its public accessors and constructors, and the
+ * {@link GetterCallGraph} of its methods.
+ */
+public class ParserClassModel {
+  private final String packageName;
+  private final String className;
+  private final List<String> imports;
+  private final List<XMLAttribute> attributes;
+  private final NodeBindings bindings;
+  private final Map<String, Accessor> accessors;
+  private final List<Constructor> constructors;
+  private final GetterCallGraph callGraph;
+  private final Map<String, List<String>> missingFieldArguments;
+
+  /**
+   * A public instance method without parameters returning a value.
+   */
+  public static final class Accessor {
+    private final String name;
+    private final String type;
+    private final List<String> thrownTypes;
+    private final boolean overridable;
+    private final ExceptionFlowDetector.Pattern missingField;
+    private final String fallback;
+    private final String conversion;
+
+    Accessor(String name, String type, List<String> thrownTypes, boolean overridable,
+             ExceptionFlowDetector.Pattern missingField, String fallback, String conversion) {
+      this.name = name;
+      this.type = type;
+      this.thrownTypes = thrownTypes;
+      this.overridable = overridable;
+      this.missingField = missingField;
+      this.fallback = fallback;
+      this.conversion = conversion;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public List<String> getThrownTypes() {
+      return thrownTypes;
+    }
+
+    /**
+     * Not final, in a class that is not final.
+     */
+    public boolean isOverridable() {
+      return overridable;
+    }
+
+    /**
+     * How the method handles a missing field, see {@link ExceptionFlowDetector#missingFieldPattern}; null if the
+     * exceptions of its parse functions reach the caller.
+     */
+    public ExceptionFlowDetector.Pattern getMissingField() {
+      return missingField;
+    }
+
+    /**
+     * The literal returned for a missing field, e.g. {@code ""} after swallowing it or {@code false} from the catch
+     * clause of a missing field; null if there is none.
+     */
+    public String getFallback() {
+      return fallback;
+    }
+
+    /**
+     * The static method of the return type the method returns its value through, e.g. {@code Operation2.getByMnemonic}
+     * for {@code return Operation2.getByMnemonic(operation)}; null if there is none.
+     */
+    public String getConversion() {
+      return conversion;
+    }
+  }
+
+  /**
+   * A non-private constructor, for subclasses.
+   */
+  public static final class Constructor {
+    private final List<String> parameters;
+    private final List<String> parameterNames;
+    private final List<String> thrownTypes;
+
+    Constructor(List<String> parameters, List<String> parameterNames, List<String> thrownTypes) {
+      this.parameters = parameters;
+      this.parameterNames = parameterNames;
+      this.thrownTypes = thrownTypes;
+    }
+
+    /**
+     * The parameters as declared, e.g. {@code Document doc}.
+     */
+    public List<String> getParameters() {
+      return parameters;
+    }
+
+    public List<String> getParameterNames() {
+      return parameterNames;
+    }
+
+    public List<String> getThrownTypes() {
+      return thrownTypes;
+    }
+  }
+
+  private ParserClassModel(String packageName, String className, List<String> imports, List<XMLAttribute> attributes,
+                           NodeBindings bindings, Map<String, Accessor> accessors, List<Constructor> constructors,
+                           GetterCallGraph callGraph, Map<String, List<String>> missingFieldArguments) {
+    this.packageName = packageName;
+    this.className = className;
+    this.imports = imports;
+    this.attributes = attributes;
+    this.bindings = bindings;
+    this.accessors = accessors;
+    this.constructors = constructors;
+    this.callGraph = callGraph;
+    this.missingFieldArguments = missingFieldArguments;
+  }
+
+  /**
+   * Models the first top-level class reading attributes, or nothing if the unit has none.
+   */
+  public static Optional<ParserClassModel> of(CompilationUnit cu) {
+    for (var type : cu.getTypes()) {
+      if (!(type instanceof ClassOrInterfaceDeclaration)) continue;
+      if (((ClassOrInterfaceDeclaration) type).isInterface()) continue;
+      List<XMLAttribute> attributes = new ArrayList<>();
+      type.accept(new AttributeVisitor(), attributes::add);
+      if (attributes.isEmpty()) continue;
+      List<String> imports = new ArrayList<>();
+      for (ImportDeclaration declaration : cu.getImports()) {
+        if (declaration.isStatic()) continue;
+        imports.add(declaration.getNameAsString() + (declaration.isAsterisk() ? ".*" : ""));
+      }
+      Map<String, Accessor> accessors = new LinkedHashMap<>();
+      for (MethodDeclaration method : type.getMethods()) {
+        boolean accessor = method.isPublic() && !method.isStatic() && method.getParameters().isEmpty()
+          && !method.getType().isVoidType();
+        if (!accessor) continue;
+        accessors.put(method.getNameAsString(), new Accessor(method.getNameAsString(), method.getType().asString(),
+          thrown(method), !method.isFinal() && !type.hasModifier(Modifier.Keyword.FINAL),
+          ExceptionFlowDetector.missingFieldPattern(method), fallback(method), conversion(method)));
+      }
+      List<Constructor> constructors = new ArrayList<>();
+      for (ConstructorDeclaration constructor : type.getConstructors()) {
+        if (constructor.isPrivate()) continue;
+        List<String> parameters = new ArrayList<>();
+        List<String> parameterNames = new ArrayList<>();
+        for (Parameter parameter : constructor.getParameters()) {
+          parameters.add(parameter.toString());
+          parameterNames.add(parameter.getNameAsString());
+        }
+        constructors.add(new Constructor(parameters, parameterNames, thrown(constructor)));
+      }
+      NodeBindings bindings = NodeBindings.of(type);
+      String packageName = cu.getPackageDeclaration().map(NodeWithName::getNameAsString).orElse(null);
+      return Optional.of(new ParserClassModel(packageName, type.getNameAsString(), imports, attributes, bindings,
+        accessors, constructors, GetterCallGraph.of((ClassOrInterfaceDeclaration) type, bindings),
+        missingFieldArguments(type.findAll(ObjectCreationExpr.class))));
+    }
+    return Optional.empty();
+  }
+
+  // Of the first construction of each *FieldMissingException type whose arguments after the message are literals or a
+  // cause, which is replaced by null: new MAComOptionalFieldMissingException("Field " + X + " is optional", 0, e).
+  private static Map<String, List<String>> missingFieldArguments(List<ObjectCreationExpr> creations) {
+    Map<String, List<String>> arguments = new LinkedHashMap<>();
+    for (ObjectCreationExpr creation : creations) {
+      String type = creation.getType().getNameAsString();
+      if (!type.endsWith(ExceptionFlowDetector.FIELD_MISSING_EXCEPTION) || arguments.containsKey(type)) continue;
+      if (creation.getArguments().isEmpty()) continue;
+      List<String> rest = new ArrayList<>();
+      for (Expression argument : creation.getArguments().subList(1, creation.getArguments().size())) {
+        if (argument.isLiteralExpr()) {
+          rest.add(argument.toString());
+        } else if (argument.isNameExpr()) {
+          rest.add("null");
+        } else {
+          rest = null;
+          break;
+        }
+      }
+      if (rest != null) arguments.put(type, rest);
+    }
+    return arguments;
+  }
+
+  private static String fallback(MethodDeclaration method) {
+    for (CatchClause clause : method.findAll(CatchClause.class)) {
+      if (!clause.getParameter().getType().asString().endsWith(ExceptionFlowDetector.FIELD_MISSING_EXCEPTION)) continue;
+      String literal = returnedLiteral(clause.getBody());
+      if (literal != null) return literal;
+    }
+    return method.getBody().map(ParserClassModel::returnedLiteral).orElse(null);
+  }
+
+  // The literal of a block ending with a return of one.
+  private static String returnedLiteral(BlockStmt block) {
+    NodeList<Statement> statements = block.getStatements();
+    if (statements.isEmpty() || !statements.getLast().get().isReturnStmt()) return null;
+    return statements.getLast().get().asReturnStmt().getExpression()
+      .filter(Expression::isLiteralExpr).map(Expression::toString).orElse(null);
+  }
+
+  private static String conversion(MethodDeclaration method) {
+    NodeList<Statement> statements = method.getBody().map(BlockStmt::getStatements).orElse(new NodeList<>());
+    if (statements.isEmpty() || !statements.getLast().get().isReturnStmt()) return null;
+    Expression returned = statements.getLast().get().asReturnStmt().getExpression().orElse(null);
+    if (returned == null || !returned.isMethodCallExpr()) return null;
+    MethodCallExpr call = returned.asMethodCallExpr();
+    boolean onReturnType = call.getScope().filter(Expression::isNameExpr)
+      .map(scope -> scope.asNameExpr().getNameAsString().equals(method.getType().asString())).orElse(false);
+    if (!onReturnType || call.getArguments().size() != 1) return null;
+    return call.getScope().get() + "." + call.getNameAsString();
+  }
+
+  private static List<String> thrown(CallableDeclaration<?> callable) {
+    List<String> thrown = new ArrayList<>();
+    callable.getThrownExceptions().forEach(exception -> thrown.add(exception.asString()));
+    return thrown;
+  }
+
+  /**
+   * The package, or null for the default package.
+   */
+  public String getPackageName() {
+    return packageName;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * The non-static imports of the unit, e.g. se.masystem.pipeline.macom.xml.ForecastTypes or org.w3c.dom.*.
+   */
+  public List<String> getImports() {
+    return imports;
+  }
+
+  public List<XMLAttribute> getAttributes() {
+    return attributes;
+  }
+
+  public NodeBindings getBindings() {
+    return bindings;
+  }
+
+  /**
+   * The public instance methods without parameters returning a value, such as the getters and the next methods, by
+   * name.
+   */
+  public Map<String, Accessor> getAccessors() {
+    return accessors;
+  }
+
+  /**
+   * The non-private constructors; empty if the class only has the default constructor.
+   */
+  public List<Constructor> getConstructors() {
+    return constructors;
+  }
+
+  public GetterCallGraph getCallGraph() {
+    return callGraph;
+  }
+
+  /**
+   * The arguments after the message with which the class constructs each *FieldMissingException type, by simple
+   * type name, e.g. [0, null]; types the class does not construct, or only with other arguments, are missing.
+   */
+  public Map<String, List<String>> getMissingFieldArguments() {
+    return missingFieldArguments;
+  }
+}
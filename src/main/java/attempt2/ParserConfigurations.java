@@ -0,0 +1,38 @@
+package attempt2;
+
+import com.github.javaparser.ParserConfiguration;
+
+public final class ParserConfigurations {
+  private ParserConfigurations() {
+  }
+
+  /**
+   * Everything attribute extraction does not need is switched off: comment attribution, lexical preservation,
+   * token storage, symbol resolution and language-level validation. Nodes carry no ranges in this mode, so use
+   * {@link #full()} for anything that reports source positions.
+   * JavaParser has no way to skip method bodies while parsing; files without attribute calls are dropped before
+   * parsing by {@link LexicalPrefilter} instead.
+   */
+  public static ParserConfiguration lean() {
+    return lean(ParserConfiguration.LanguageLevel.RAW);
+  }
+
+  /**
+   * Like {@link #lean()}, but validating against a language level, e.g. JAVA_11 to reject sources the
+   * production compiler would not accept either.
+   */
+  public static ParserConfiguration lean(ParserConfiguration.LanguageLevel languageLevel) {
+    return new ParserConfiguration()
+      .setAttributeComments(false)
+      .setLexicalPreservationEnabled(false)
+      .setStoreTokens(false)
+      .setLanguageLevel(languageLevel);
+  }
+
+  /**
+   * JavaParser's defaults, as used by StaticJavaParser.
+   */
+  public static ParserConfiguration full() {
+    return new ParserConfiguration();
+  }
+}
@@ -0,0 +1,40 @@
+package attempt2;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lends out JavaParser instances, each confined to the borrowing thread until it is handed back. A JavaParser
+ * reuses its generated parser and token manager between parses, so keeping instances around avoids setting them
+ * up per file. The pool grows to the highest number of concurrent borrowers and works with any threading model:
+ * ForkJoinPool workers, executor threads or the watch thread.
+ */
+public class ParserPool {
+  private final Supplier<ParserConfiguration> configuration;
+  private final ConcurrentLinkedQueue<JavaParser> idle = new ConcurrentLinkedQueue<>();
+
+  public ParserPool() {
+    this(ParserConfigurations::lean);
+  }
+
+  /**
+   * @param configuration called once per parser created, so no configuration instance is shared between threads
+   */
+  public ParserPool(Supplier<ParserConfiguration> configuration) {
+    this.configuration = configuration;
+  }
+
+  public <T> T apply(Function<JavaParser, T> work) {
+    JavaParser parser = idle.poll();
+    if (parser == null) parser = new JavaParser(configuration.get());
+    try {
+      return work.apply(parser);
+    } finally {
+      idle.offer(parser);
+    }
+  }
+}
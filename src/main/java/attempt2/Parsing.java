@@ -1,34 +1,198 @@
 package attempt2;
 
-import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.expr.MethodCallExpr;
 
-import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.StringJoiner;
+import java.util.function.Function;
 
 public class Parsing {
+  static final String BUNDLED_SOURCE = "parser.java";
+
   public static void main(String[] args) {
-    CompilationUnit cu;
+    CommandLine commandLine;
+    try {
+      commandLine = CommandLine.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(CommandLine.USAGE);
+      System.exit(2);
+      return;
+    }
+    if (commandLine.help) {
+      System.out.println(CommandLine.USAGE);
+      return;
+    }
     try {
-      cu = StaticJavaParser.parse(new File("C:\\Users\\Ani\\IdeaProjects\\ParsingTheParsers\\src\\main\\resources\\parser.java"));
-    } catch (FileNotFoundException e) {
+      switch (commandLine.mode) {
+        case BUNDLED:
+          extractBundled(commandLine);
+          break;
+        case EXTRACT:
+          extract(commandLine);
+          break;
+        case WATCH:
+          watch(commandLine);
+          break;
+        case GENERATE_STAX:
+          generate(commandLine, commandLine.generateStax, StaxReaderGenerator::className,
+            StaxReaderGenerator::generate);
+          break;
+        case GENERATE_RECORDS:
+          generate(commandLine, commandLine.generateRecords, RecordGenerator::className, RecordGenerator::generate);
+          break;
+        case GENERATE_SNAPSHOT:
+          generate(commandLine, commandLine.generateSnapshot, SnapshotGenerator::className,
+            SnapshotGenerator::generate);
+          break;
+        case GENERATE_MEMO:
+          generate(commandLine, commandLine.generateMemo, MemoGenerator::className, MemoGenerator::generate);
+          break;
+        case ANALYZE:
+          analyze(commandLine);
+          break;
+        case CAPTURE:
+          capture(commandLine);
+          break;
+      }
+    } catch (IOException e) {
       throw new RuntimeException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // The bundled example parser is a classpath resource, so this works from the jar and on any platform.
+  private static void extractBundled(CommandLine commandLine) throws IOException {
+    String source;
+    try (InputStream in = Parsing.class.getResourceAsStream("/" + BUNDLED_SOURCE)) {
+      if (in == null) throw new FileNotFoundException("classpath:" + BUNDLED_SOURCE);
+      source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    var result = new ParserPool().apply(parser -> parser.parse(source));
+    CompilationUnit cu = result.getResult().filter(r -> result.isSuccessful())
+      .orElseThrow(() -> new RuntimeException(BUNDLED_SOURCE + ": " + result.getProblems()));
+    try (AttributeSink sink = sink(commandLine)) {
+      sink.source(Paths.get(BUNDLED_SOURCE));
+      if (commandLine.resolveConstants) {
+        ConstantIndex constants = new ConstantIndex();
+        constants.add(cu);
+        AttributeExtractor.extract(cu, attribute -> sink.attribute(constants.resolve(attribute)));
+      } else {
+        AttributeExtractor.extract(cu, sink::attribute);
+      }
+    }
+  }
+
+  private static AttributeSink sink(CommandLine commandLine) throws IOException {
+    return new UnknownParseFunctions(commandLine.format.sink(WriterSink.open(commandLine.output)), System.err);
+  }
+
+  private static void extract(CommandLine commandLine) throws IOException {
+    List<Path> sources = collectSources(commandLine.inputs);
+    ExtractionCache cache = commandLine.cache == null ? null : ExtractionCache.load(commandLine.cache);
+    ParserPool parsers = new ParserPool();
+    SourceLoader loader = new SourceLoader(commandLine.charset);
+    ConstantIndex constants = commandLine.resolveConstants
+      ? new BatchExtraction(commandLine.threads, parsers, loader, null, null).indexConstants(sources)
+      : null;
+    try (AttributeSink sink = sink(commandLine)) {
+      new BatchExtraction(commandLine.threads, parsers, loader, cache, constants).run(sources, sink);
+    }
+    if (cache != null) cache.save();
+  }
+
+  private static void generate(CommandLine commandLine, Path root, Function<ParserClassModel, String> className,
+                               Function<ParserClassModel, String> generator) throws IOException {
+    var extraction = new BatchExtraction(commandLine.threads, new ParserPool(), new SourceLoader(commandLine.charset),
+      null, null);
+    var models = extraction.analyze(collectSources(commandLine.inputs), cu -> ParserClassModel.of(cu).orElse(null));
+    for (ParserClassModel model : models.values()) {
+      Path directory = root;
+      if (model.getPackageName() != null) directory = directory.resolve(model.getPackageName().replace('.', '/'));
+      Files.createDirectories(directory);
+      Path file = directory.resolve(className.apply(model) + ".java");
+      Files.writeString(file, generator.apply(model));
+      System.err.println(file);
+    }
+  }
+
+  private static void analyze(CommandLine commandLine) throws IOException {
+    var extraction = new BatchExtraction(commandLine.threads, new ParserPool(), new SourceLoader(commandLine.charset),
+      null, null);
+    var reports = extraction.analyze(collectSources(commandLine.inputs), cu -> {
+      List<?> findings = commandLine.analysis.run(cu);
+      return findings.isEmpty() ? null : findings;
+    });
+    try (Writer out = WriterSink.open(commandLine.output)) {
+      for (var report : reports.entrySet()) {
+        out.write(report.getKey() + System.lineSeparator());
+        for (Object finding : report.getValue()) out.write("  " + finding + System.lineSeparator());
+      }
+    }
+  }
+
+  // Constants are always resolved, the automaton matches tag and attribute names.
+  private static void capture(CommandLine commandLine) throws IOException {
+    List<Path> sources = collectSources(commandLine.inputs);
+    ParserPool parsers = new ParserPool();
+    SourceLoader loader = new SourceLoader(commandLine.charset);
+    ConstantIndex constants = new BatchExtraction(commandLine.threads, parsers, loader, null, null)
+      .indexConstants(sources);
+    List<XMLAttribute> attributes = new ArrayList<>();
+    new BatchExtraction(commandLine.threads, parsers, loader, null, constants).run(sources).values()
+      .forEach(attributes::addAll);
+    AttributeCapture capture = new AttributeCapture(attributes);
+    if (!capture.getSkipped().isEmpty()) {
+      System.err.println(capture.getSkipped().size() + " attribute(s) without resolved element path or name skipped");
+    }
+    try (InputStream in = Files.newInputStream(commandLine.capture); Writer out = WriterSink.open(commandLine.output)) {
+      capture.capture(in, (path, values) -> {
+        StringJoiner line = new StringJoiner("\t", "", System.lineSeparator()).add(path);
+        values.forEach((name, value) -> line.add(name + "=" + value));
+        try {
+          out.write(line.toString());
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+
+  private static List<Path> collectSources(List<String> inputs) throws IOException {
+    List<Path> sources = new ArrayList<>();
+    for (String input : inputs) {
+      sources.addAll(BatchExtraction.collectSources(input));
+    }
+    return sources;
+  }
+
+  private static void watch(CommandLine commandLine) throws IOException, InterruptedException {
+    List<Path> roots = new ArrayList<>();
+    for (String input : commandLine.inputs) {
+      Path root = Paths.get(input);
+      if (!Files.isDirectory(root)) throw new IllegalArgumentException("--watch needs directories: " + input);
+      roots.add(root);
+    }
+    ExtractionCache cache = commandLine.cache == null ? null : ExtractionCache.load(commandLine.cache);
+    var extraction = new BatchExtraction(commandLine.threads, new ParserPool(), new SourceLoader(commandLine.charset),
+      cache, null);
+    try (AttributeSink sink = sink(commandLine)) {
+      new WatchMode(extraction, 200).watch(roots, (source, attributes) -> {
+        sink.source(source);
+        attributes.forEach(sink::attribute);
+        sink.flush();
+      });
     }
-    var methodDeclList = cu.findAll(MethodDeclaration.class);
-    List<XMLAttribute> attributeList = new ArrayList<>();
-    for (var methodDecl : methodDeclList) {
-      var methodCallList = methodDecl.findAll(MethodCallExpr.class);
-      var getAttrValCalls = methodCallList.stream()
-        .filter(methodCallExpr -> methodCallExpr.toString().contains("getAttributeValue"))
-        .filter(methodCallExpr -> !methodCallExpr.toString().startsWith("getAttributeValue"))
-        .collect(Collectors.toList());
-      getAttrValCalls.forEach(k -> attributeList.add(new XMLAttribute(k)));
-    }
-    attributeList.forEach(System.out::println);
   }
 }
@@ -0,0 +1,116 @@
+package attempt2;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A deterministic automaton over the tag names of the open elements that matches many element paths at once. A path
+ * such as Order/OrderHead/Supplier uses the descendant axis like the getElementsByTagName chain it comes from: a
+ * Supplier element anywhere below an OrderHead anywhere below an Order.
+ * <p>
+ * The paths are compiled into one NFA whose positions are "the first n steps of path p have matched". A
+ * {@link State} is a set of positions; its transition for a tag keeps every open position (a descendant may still
+ * follow) and advances those waiting for the tag. States and transitions are built on first use, so only the
+ * combinations of tags that occur in the documents are ever determinized. Safe to share between threads.
+ */
+public final class PathAutomaton {
+  private final List<String> paths;
+  // Per NFA position the tag that advances it, null for the final position of a path.
+  private final String[] steps;
+  // Per NFA position the path it belongs to.
+  private final int[] pathOf;
+  private final Map<BitSet, State> states = new ConcurrentHashMap<>();
+  private final State start;
+
+  public PathAutomaton(List<String> paths) {
+    this.paths = List.copyOf(paths);
+    List<String> steps = new ArrayList<>();
+    List<Integer> pathOf = new ArrayList<>();
+    BitSet start = new BitSet();
+    for (int path = 0; path < paths.size(); path++) {
+      start.set(steps.size());
+      for (String step : paths.get(path).split(ElementPaths.SEPARATOR)) {
+        steps.add(step);
+        pathOf.add(path);
+      }
+      steps.add(null);
+      pathOf.add(path);
+    }
+    this.steps = steps.toArray(new String[0]);
+    this.pathOf = pathOf.stream().mapToInt(Integer::intValue).toArray();
+    this.start = state(start);
+  }
+
+  /**
+   * The state before the root element.
+   */
+  public State start() {
+    return start;
+  }
+
+  /**
+   * The path with the index reported by {@link State#matches()}.
+   */
+  public String path(int index) {
+    return paths.get(index);
+  }
+
+  public int size() {
+    return paths.size();
+  }
+
+  /**
+   * The number of states built so far.
+   */
+  public int states() {
+    return states.size();
+  }
+
+  private State state(BitSet positions) {
+    return states.computeIfAbsent(positions, State::new);
+  }
+
+  public final class State {
+    private final BitSet positions;
+    private final int[] matches;
+    private final Map<String, State> transitions = new ConcurrentHashMap<>();
+
+    private State(BitSet positions) {
+      this.positions = positions;
+      List<Integer> matches = new ArrayList<>();
+      for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+        if (steps[position] == null) matches.add(pathOf[position]);
+      }
+      this.matches = matches.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The state inside a child element with the tag.
+     */
+    public State next(String tag) {
+      State next = transitions.get(tag);
+      if (next == null) next = transitions.computeIfAbsent(tag, this::step);
+      return next;
+    }
+
+    private State step(String tag) {
+      BitSet next = new BitSet();
+      for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+        if (steps[position] == null) continue;
+        next.set(position);
+        if (steps[position].equals(tag)) next.set(position + 1);
+      }
+      return state(next);
+    }
+
+    /**
+     * The indexes of the paths that end at the element this state was entered by. The array is shared, do not modify.
+     */
+    public int[] matches() {
+      return matches;
+    }
+  }
+}
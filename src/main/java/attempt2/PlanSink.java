@@ -0,0 +1,60 @@
+package attempt2;
+
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Writes the {@link AccessPlan} of each source: per node variable a line with the attribute array in slot order, then
+ * one line per slot with its index, required flag and the methods reading it. Only the attributes of the current
+ * source are held back, until the next source starts or the sink is flushed.
+ */
+public class PlanSink extends WriterSink {
+  private Path source;
+  private List<XMLAttribute> attributes = new ArrayList<>();
+
+  public PlanSink(Writer out) {
+    super(out);
+  }
+
+  @Override
+  public void source(Path source) {
+    writePlan();
+    this.source = source;
+  }
+
+  @Override
+  public void attribute(XMLAttribute attribute) {
+    attributes.add(attribute);
+  }
+
+  private void writePlan() {
+    if (source == null) return;
+    line(source.toString());
+    AccessPlan.of(attributes).nodes().forEach((node, slots) -> {
+      StringJoiner array = new StringJoiner(", ", node + "[" + slots.size() + "] = {", "}");
+      slots.forEach(slot -> array.add(slot.getName() == null ? slot.getConstant() : '"' + slot.getName() + '"'));
+      line(array.toString());
+      for (AccessPlan.Slot slot : slots) {
+        line("  " + slot.getIndex() + "\t" + slot.getConstant() + "\t" + (slot.isRequired() ? "required" : "optional")
+          + "\t" + String.join(",", slot.getMethods()));
+      }
+    });
+    source = null;
+    attributes = new ArrayList<>();
+  }
+
+  @Override
+  public void flush() {
+    writePlan();
+    super.flush();
+  }
+
+  @Override
+  public void close() {
+    writePlan();
+    super.close();
+  }
+}
@@ -0,0 +1,525 @@
+package attempt2;
+
+import javax.lang.model.SourceVersion;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates flat records of the attributes a DOM parser class reads, one per element path (OrderHead, OrderLine,
+ * BoxLine, Cumulated), and a loader that fills them from an {@code XMLStreamReader} in one pass, in batches of a
+ * number of elements of the outermost tag. Every attribute is converted once, to the primitive or reference type its
+ * parse function returns. Which attributes are present is a bit mask component of the record, read through has*()
+ * methods; an absent attribute is 0, false or null. isComplete() tells whether every attribute a DOM getter would
+ * fail on when missing is present. Attributes whose getter turns a missing required field into an optional one
+ * ({@link ExceptionFlowDetector.Pattern#REQUIRED_TO_OPTIONAL}) are optional. Attributes read with different parse
+ * functions are kept as String.
+ * <p>
+ * An XML element is added to one record only, that of the most specific path it matches, as a variable bound both
+ * below the document and below another element has both paths, e.g. CUSTOMER and ORDER/ORDER_HEAD/CUSTOMER.
+ * <p>
+ * The generated code needs Java 16 for the records. Like the {@link StaxReaderGenerator streaming reader} it
+ * statically imports the constants of the DOM class. Attributes without a constant or an {@link ElementPaths element
+ * path} are left out.
+ */
+public class RecordGenerator {
+  static final String SUFFIX = "Records";
+
+  private final ParserClassModel model;
+  private final Map<String, Element> elements = new LinkedHashMap<>();
+  private final String unit;
+  private final String indexName;
+  private final StringBuilder out = new StringBuilder();
+  private int indent;
+
+  private RecordGenerator(ParserClassModel model) {
+    this.model = model;
+    Map<String, Element> byPath = new LinkedHashMap<>();
+    for (XMLAttribute attribute : model.getAttributes()) {
+      if (attribute.getAttributeConstant() == null || attribute.getElementPath() == null) continue;
+      for (String path : ElementPaths.alternatives(attribute.getElementPath())) {
+        byPath.computeIfAbsent(path, Element::new).add(attribute, required(attribute));
+      }
+    }
+    // Most specific first, as load() adds an element to the first path it matches.
+    byPath.values().stream().sorted(Comparator.comparingInt((Element element) -> element.steps.length).reversed())
+      .forEach(element -> elements.put(element.path, element));
+    // The outermost tag of the deepest path; a variable also bound below the document adds a path like SUPPLIER.
+    unit = elements.values().stream().max(Comparator.comparingInt(element -> element.steps.length))
+      .map(element -> element.steps[0]).orElse(null);
+    indexName = unit == null ? null : lowerCamel(unit) + "Index";
+    nameRecords();
+    elements.values().forEach(element -> element.nameFields(indexName));
+  }
+
+  private boolean required(XMLAttribute attribute) {
+    ParserClassModel.Accessor accessor = model.getAccessors().get(attribute.getMethodName());
+    return attribute.isRequired()
+      && (accessor == null || accessor.getMissingField() != ExceptionFlowDetector.Pattern.REQUIRED_TO_OPTIONAL);
+  }
+
+  public static String className(ParserClassModel model) {
+    return model.getClassName() + SUFFIX;
+  }
+
+  public static String generate(ParserClassModel model) {
+    return new RecordGenerator(model).generate();
+  }
+
+  private String generate() {
+    header();
+    line("public final class " + className(model) + " {");
+    indent++;
+    if (unit != null) {
+      line("private static final String UNIT = " + unit + ";");
+      line("private static final String[][] PATHS = {");
+      for (Element element : elements.values()) line("  {" + String.join(", ", element.steps) + "},");
+      line("};");
+    }
+    elements.values().forEach(this::record);
+    batch();
+    line("");
+    line("private " + className(model) + "() {");
+    line("}");
+    load();
+    add();
+    elements.values().forEach(this::read);
+    runtime();
+    indent--;
+    line("}");
+    return out.toString();
+  }
+
+  private void header() {
+    if (model.getPackageName() != null) {
+      line("package " + model.getPackageName() + ";");
+      line("");
+    }
+    Set<String> imports = new LinkedHashSet<>(List.of("java.util.ArrayList", "java.util.Date", "java.util.List",
+      "java.util.function.Consumer", "javax.xml.stream.XMLStreamConstants",
+      "javax.xml.stream.XMLStreamException", "javax.xml.stream.XMLStreamReader"));
+    List<String> constants = new ArrayList<>();
+    for (Element element : elements.values()) {
+      constants.addAll(List.of(element.steps));
+      constants.addAll(element.fields.keySet());
+    }
+    imports.addAll(StaxReaderGenerator.qualifierImports(model, constants));
+    imports.forEach(name -> line("import " + name + ";"));
+    line("");
+    // Types in the default package cannot be imported, so their constants stay unresolved there.
+    if (model.getPackageName() != null) {
+      line("import static " + model.getPackageName() + "." + model.getClassName() + ".*;");
+      line("");
+    }
+    line("/**");
+    line(" * Flat records of the attributes read by " + model.getClassName() + ", generated by "
+      + RecordGenerator.class.getName() + "; do not edit.");
+    line(" */");
+  }
+
+  private void record(Element element) {
+    line("");
+    line("// " + element.path);
+    List<String> components = new ArrayList<>();
+    components.add("int " + indexName);
+    element.presentNames.forEach(name -> components.add("long " + name));
+    for (Field field : element.fields.values()) components.add(field.type() + " " + field.name);
+    line("public record " + element.recordName + "(");
+    for (int i = 0; i < components.size(); i++) {
+      line("  " + components.get(i) + (i < components.size() - 1 ? "," : ") {"));
+    }
+    indent++;
+    long[] required = new long[element.presentNames.size()];
+    int bit = 0;
+    for (Field field : element.fields.values()) {
+      if (field.required) required[bit / Long.SIZE] |= 1L << bit % Long.SIZE;
+      bit++;
+    }
+    for (int word = 0; word < required.length; word++) {
+      line("private static final long " + requiredName(word) + " = 0x" + Long.toHexString(required[word]) + "L;");
+    }
+    bit = 0;
+    for (Field field : element.fields.values()) {
+      line("");
+      line("public boolean " + field.hasName + "() {");
+      line("  return (" + element.presentNames.get(bit / Long.SIZE) + " & " + mask(bit) + ") != 0;");
+      line("}");
+      bit++;
+    }
+    line("");
+    line("/**");
+    line(" * Whether every attribute is present that a getter of " + model.getClassName() + " fails on when missing.");
+    line(" */");
+    line("public boolean isComplete() {");
+    for (int word = 0; word < required.length; word++) {
+      String check = "(" + element.presentNames.get(word) + " & " + requiredName(word) + ") == " + requiredName(word);
+      line((word == 0 ? "  return " : "    && ") + check + (word < required.length - 1 ? "" : ";"));
+    }
+    line("}");
+    indent--;
+    line("}");
+  }
+
+  private static String requiredName(int word) {
+    return word == 0 ? "REQUIRED" : "REQUIRED" + (word + 1);
+  }
+
+  private static String mask(int bit) {
+    return "0x" + Long.toHexString(1L << bit % Long.SIZE) + "L";
+  }
+
+  private void batch() {
+    line("");
+    line("/**");
+    if (unit == null) {
+      line(" * The records of one document.");
+    } else {
+      line(" * The records of up to batchSize " + unit + " elements.");
+      line(" * The index of a record is the position of its enclosing " + unit + " in the batch, -1 outside of one.");
+    }
+    line(" */");
+    if (elements.isEmpty()) {
+      line("public record Batch() {");
+      line("  public boolean isEmpty() {");
+      line("    return true;");
+      line("  }");
+      line("}");
+      return;
+    }
+    List<String> lists = new ArrayList<>();
+    List<String> empty = new ArrayList<>();
+    for (Element element : elements.values()) {
+      lists.add("List<" + element.recordName + "> " + element.listName);
+      empty.add(element.listName + ".isEmpty()");
+    }
+    line("public record Batch(");
+    for (int i = 0; i < lists.size(); i++) line("  " + lists.get(i) + (i < lists.size() - 1 ? "," : ") {"));
+    indent++;
+    line("private Batch() {");
+    line("  this(");
+    for (int i = 0; i < lists.size(); i++) line("    new ArrayList<>()" + (i < lists.size() - 1 ? "," : ");"));
+    line("}");
+    line("");
+    line("public boolean isEmpty() {");
+    for (int i = 0; i < empty.size(); i++) {
+      line((i == 0 ? "  return " : "    && ") + empty.get(i) + (i < empty.size() - 1 ? "" : ";"));
+    }
+    line("}");
+    indent--;
+    line("}");
+  }
+
+  private void load() {
+    line("");
+    line("/**");
+    String units = unit == null ? "" : unit + " ";
+    line(" * Reads the document to its end, handing over a batch after every batchSize " + units + "elements and the"
+      + " rest at the end.");
+    line(" */");
+    line("public static void load(XMLStreamReader reader, int batchSize, Consumer<Batch> consumer)"
+      + " throws XMLStreamException {");
+    indent++;
+    line("List<String> open = new ArrayList<>();");
+    line("Batch batch = new Batch();");
+    if (unit != null) {
+      line("int units = 0;");
+      line("int unitIndex = -1;");
+    }
+    line("while (reader.hasNext()) {");
+    line("  int event = reader.next();");
+    line("  if (event == XMLStreamConstants.START_ELEMENT) {");
+    line("    String name = reader.getLocalName();");
+    if (unit != null) {
+      line("    if (name.equals(UNIT)) unitIndex = units++;");
+      line("    for (int path = 0; path < PATHS.length; path++) {");
+      line("      if (matches(PATHS[path], open, name)) {");
+      line("        add(batch, path, unitIndex, reader);");
+      line("        break;");
+      line("      }");
+      line("    }");
+    }
+    line("    open.add(name);");
+    line("  } else if (event == XMLStreamConstants.END_ELEMENT) {");
+    line("    open.remove(open.size() - 1);");
+    if (unit != null) {
+      line("    if (units == batchSize && reader.getLocalName().equals(UNIT)) {");
+      line("      consumer.accept(batch);");
+      line("      batch = new Batch();");
+      line("      units = 0;");
+      line("      unitIndex = -1;");
+      line("    }");
+    }
+    line("  }");
+    line("}");
+    line("if (!batch.isEmpty()) consumer.accept(batch);");
+    indent--;
+    line("}");
+  }
+
+  private void add() {
+    if (unit == null) return;
+    line("");
+    line("private static void add(Batch batch, int path, int unitIndex, XMLStreamReader reader) {");
+    indent++;
+    line("switch (path) {");
+    int path = 0;
+    for (Element element : elements.values()) {
+      line("  case " + path++ + ":");
+      line("    batch." + element.listName + "().add(read" + element.recordName + "(unitIndex, reader));");
+      line("    break;");
+    }
+    line("  default:");
+    line("    throw new IllegalArgumentException(\"path \" + path);");
+    line("}");
+    indent--;
+    line("}");
+  }
+
+  // Converts the attributes present and sets their bits.
+  private void read(Element element) {
+    line("");
+    line("private static " + element.recordName + " read" + element.recordName + "(int " + indexName
+      + ", XMLStreamReader reader) {");
+    indent++;
+    element.presentNames.forEach(name -> line("long " + name + " = 0;"));
+    line("String value;");
+    int bit = 0;
+    List<String> arguments = new ArrayList<>();
+    arguments.add(indexName);
+    arguments.addAll(element.presentNames);
+    for (Field field : element.fields.values()) {
+      line("value = value(reader, " + field.constant + ");");
+      line(field.type() + " " + field.name + " = " + field.absent() + ";");
+      line("if (present(value)) {");
+      line("  " + field.name + " = " + field.conversion() + ";");
+      line("  " + element.presentNames.get(bit / Long.SIZE) + " |= " + mask(bit) + ";");
+      line("}");
+      arguments.add(field.name);
+      bit++;
+    }
+    line("return new " + element.recordName + "(" + String.join(", ", arguments) + ");");
+    indent--;
+    line("}");
+  }
+
+  // The fixed part: path matching, attribute access and value conversion.
+  private void runtime() {
+    line("");
+    line("// The last step is the element itself, the others are found in order among the open elements, since every");
+    line("// step of the DOM class is a getElementsByTagName below the one before.");
+    line("private static boolean matches(String[] path, List<String> open, String name) {");
+    line("  if (!path[path.length - 1].equals(name)) return false;");
+    line("  int step = 0;");
+    line("  for (int i = 0; i < open.size() && step < path.length - 1; i++) {");
+    line("    if (open.get(i).equals(path[step])) step++;");
+    line("  }");
+    line("  return step == path.length - 1;");
+    line("}");
+    line("");
+    line("private static String value(XMLStreamReader reader, String name) {");
+    line("  return reader.getAttributeValue(null, name);");
+    line("}");
+    line("");
+    line("// An empty attribute is missing for the parse functions of the DOM class as well.");
+    line("private static boolean present(String value) {");
+    line("  return value != null && !value.isEmpty();");
+    line("}");
+    line("");
+    line("private static int toInt(String value) {");
+    line("  return Integer.parseInt(value.trim());");
+    line("}");
+    line("");
+    line("private static long toLong(String value) {");
+    line("  return Long.parseLong(value.trim());");
+    line("}");
+    line("");
+    line("private static double toDouble(String value) {");
+    line("  return Double.parseDouble(value.trim());");
+    line("}");
+    line("");
+    line("private static float toFloat(String value) {");
+    line("  return Float.parseFloat(value.trim());");
+    line("}");
+    line("");
+    line("private static boolean toBoolean(String value) {");
+    line("  return \"true\".equalsIgnoreCase(value) || \"Y\".equalsIgnoreCase(value) || \"1\".equals(value);");
+    line("}");
+    line("");
+    line("// ISO dates and date-times.");
+    line("private static Date toDate(String value) {");
+    line("  java.time.LocalDateTime dateTime = value.length() <= 10");
+    line("    ? java.time.LocalDate.parse(value).atStartOfDay() : java.time.LocalDateTime.parse(value);");
+    line("  return Date.from(dateTime.atZone(java.time.ZoneId.systemDefault()).toInstant());");
+    line("}");
+  }
+
+  // The last step names the record; steps before it are prepended until the names are unique, e.g. CUSTOMER_PRODUCT
+  // below BOX_LINE becomes BoxLineCustomerProduct when ORDER_LINE has one too.
+  private void nameRecords() {
+    Map<Element, Integer> steps = new LinkedHashMap<>();
+    elements.values().forEach(element -> steps.put(element, 1));
+    while (true) {
+      Map<String, List<Element>> byName = new LinkedHashMap<>();
+      for (Element element : elements.values()) {
+        element.recordName = recordName(element.steps, steps.get(element));
+        byName.computeIfAbsent(element.recordName, name -> new ArrayList<>()).add(element);
+      }
+      boolean renamed = false;
+      for (List<Element> clashing : byName.values()) {
+        if (clashing.size() < 2) continue;
+        for (Element element : clashing) {
+          if (steps.get(element) < element.steps.length) {
+            steps.put(element, steps.get(element) + 1);
+            renamed = true;
+          }
+        }
+      }
+      if (!renamed) break;
+    }
+    Set<String> used = new HashSet<>(List.of("Batch", className(model)));
+    for (Element element : elements.values()) {
+      String name = element.recordName;
+      for (int i = 2; !used.add(element.recordName); i++) element.recordName = name + i;
+      String list = Character.toLowerCase(element.recordName.charAt(0)) + element.recordName.substring(1);
+      element.listName = list + (list.endsWith("s") ? "es" : "s");
+    }
+  }
+
+  private static String recordName(String[] steps, int count) {
+    StringBuilder name = new StringBuilder();
+    for (int i = steps.length - count; i < steps.length; i++) name.append(camel(steps[i]));
+    return name.toString();
+  }
+
+  // ForecastTypes.CUMULATED is Cumulated, ORDER_HEAD is OrderHead.
+  static String camel(String constant) {
+    StringBuilder name = new StringBuilder();
+    for (String word : constant.substring(constant.lastIndexOf('.') + 1).split("_")) {
+      if (word.isEmpty()) continue;
+      name.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1).toLowerCase());
+    }
+    return name.length() == 0 ? "Element" : name.toString();
+  }
+
+  static String lowerCamel(String constant) {
+    String name = camel(constant);
+    return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private void line(String text) {
+    if (!text.isEmpty()) out.append("  ".repeat(indent));
+    out.append(text).append('\n');
+  }
+
+  private static final class Element {
+    private final String path;
+    private final String[] steps;
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+    private final List<String> presentNames = new ArrayList<>();
+    private String recordName;
+    private String listName;
+
+    private Element(String path) {
+      this.path = path;
+      this.steps = path.split(ElementPaths.SEPARATOR);
+    }
+
+    private void add(XMLAttribute attribute, boolean required) {
+      Field field = fields.get(attribute.getAttributeConstant());
+      if (field == null) {
+        fields.put(attribute.getAttributeConstant(), new Field(attribute, required));
+      } else {
+        field.add(attribute, required);
+      }
+    }
+
+    // One presence word per 64 fields; the names of the locals of the read method are taken as well.
+    private void nameFields(String indexName) {
+      Set<String> used = new HashSet<>(List.of(indexName, "value", "reader", "isComplete"));
+      for (int word = 0; word * Long.SIZE < fields.size(); word++) {
+        presentNames.add(word == 0 ? "present" : "present" + (word + 1));
+      }
+      used.addAll(presentNames);
+      for (Field field : fields.values()) {
+        String name = lowerCamel(field.constant);
+        if (SourceVersion.isKeyword(name)) name += "_";
+        field.name = name;
+        for (int i = 2; !used.add(field.name); i++) field.name = name + i;
+      }
+      for (Field field : fields.values()) {
+        String name = "has" + Character.toUpperCase(field.name.charAt(0)) + field.name.substring(1);
+        field.hasName = name;
+        for (int i = 2; !used.add(field.hasName); i++) field.hasName = name + i;
+      }
+    }
+  }
+
+  private static final class Field {
+    private final String constant;
+    private ParseFunction.ValueKind kind;
+    private boolean required;
+    private String name;
+    private String hasName;
+
+    private Field(XMLAttribute attribute, boolean required) {
+      this.constant = attribute.getAttributeConstant();
+      this.kind = attribute.getParseFunction().getValueKind();
+      this.required = required;
+    }
+
+    // Absent is fine if any getter allows it; conflicting kinds fall back to the raw value.
+    private void add(XMLAttribute attribute, boolean required) {
+      if (attribute.getParseFunction().getValueKind() != kind) kind = ParseFunction.ValueKind.STRING;
+      this.required &= required;
+    }
+
+    private String type() {
+      switch (kind) {
+        case BOOLEAN:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          return kind.name().toLowerCase(Locale.ROOT);
+        case DATE:
+          return "Date";
+        default:
+          return "String";
+      }
+    }
+
+    private String absent() {
+      switch (kind) {
+        case BOOLEAN:
+          return "false";
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+          return "0";
+        default:
+          return "null";
+      }
+    }
+
+    private String conversion() {
+      switch (kind) {
+        case BOOLEAN:
+        case INT:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+        case DATE:
+          return "to" + camel(kind.name()) + "(value)";
+        default:
+          return "value";
+      }
+    }
+  }
+}
@@ -0,0 +1,283 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.IfStmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds subtree scans that the next* methods of a DOM parser class redo on every call. Every
+ * {@code getElementsByTagName} walks the whole subtree below its scope, so a scan that a method repeats, that
+ * rescans a subtree another scan of the same method already walked, or that starts from a node the method does not
+ * advance (such as orderHeadNode in nextOrderLine) costs a full walk per iteration.
+ * <p>
+ * The cost is estimated as redundant walks per document, assuming {@link #ASSUMED_LIST_SIZE} elements per list, so a
+ * redundant scan in nextOrderLine (iterating ORDER x ORDER_LINE) weighs ten times one in nextOrder.
+ */
+public class ScanDetector {
+  static final int ASSUMED_LIST_SIZE = 10;
+
+  public enum Kind {
+    /** The same tag is searched below the same node more than once along one path through the method. */
+    REPEATED_SCAN,
+    /** Several tags are searched below the same node; one walk could collect all of them. */
+    SUBTREE_RESCAN,
+    /** The scope does not change between calls, so the result could be computed once per enclosing iteration. */
+    INVARIANT_SCAN,
+    /** The same list element is fetched more than once per call. */
+    REPEATED_ITEM
+  }
+
+  public static final class Finding {
+    private final String methodName;
+    private final Kind kind;
+    private final String scope;
+    private final List<String> targets;
+    private final int redundant;
+    private final List<String> iterations;
+
+    Finding(String methodName, Kind kind, String scope, List<String> targets, int redundant, List<String> iterations) {
+      this.methodName = methodName;
+      this.kind = kind;
+      this.scope = scope;
+      this.targets = targets;
+      this.redundant = redundant;
+      this.iterations = iterations;
+    }
+
+    public String getMethodName() {
+      return methodName;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * The node variable scanned, or the list variable indexed for {@link Kind#REPEATED_ITEM}.
+     */
+    public String getScope() {
+      return scope;
+    }
+
+    /**
+     * The tag constants searched, or the index expressions for {@link Kind#REPEATED_ITEM}.
+     */
+    public List<String> getTargets() {
+      return targets;
+    }
+
+    /**
+     * Redundant walks per call of the method.
+     */
+    public int getRedundant() {
+      return redundant;
+    }
+
+    /**
+     * The tags of the nested lists the method iterates, outermost first, e.g. ORDER, ORDER_LINE.
+     */
+    public List<String> getIterations() {
+      return iterations;
+    }
+
+    /**
+     * Estimated redundant walks per document.
+     */
+    public long getEstimatedCost() {
+      long calls = 1;
+      for (int i = 0; i < iterations.size(); i++) calls *= ASSUMED_LIST_SIZE;
+      return redundant * calls;
+    }
+
+    @Override
+    public String toString() {
+      return methodName + "\t" + kind + "\t" + scope + "/" + String.join(",", targets) + "\t" + redundant
+        + " per call, per " + String.join(" x ", iterations) + "\t~" + getEstimatedCost() + " per document";
+    }
+  }
+
+  private final NodeBindings bindings;
+  private final List<Finding> findings = new ArrayList<>();
+
+  private ScanDetector(NodeBindings bindings) {
+    this.bindings = bindings;
+  }
+
+  /**
+   * The findings of all classes of the unit, most expensive first.
+   */
+  public static List<Finding> detect(CompilationUnit cu) {
+    List<Finding> findings = new ArrayList<>();
+    for (ClassOrInterfaceDeclaration type : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+      if (type.isInterface()) continue;
+      ScanDetector detector = new ScanDetector(NodeBindings.of(type));
+      detector.detect(type);
+      findings.addAll(detector.findings);
+    }
+    findings.sort(Comparator.comparingLong(Finding::getEstimatedCost).reversed());
+    return findings;
+  }
+
+  private void detect(ClassOrInterfaceDeclaration type) {
+    Map<String, String> cursors = bindings.cursors();
+    for (MethodDeclaration method : type.getMethods()) {
+      cursors.forEach((list, methodName) -> {
+        if (method.getNameAsString().equals(methodName)) detect(method, list);
+      });
+    }
+  }
+
+  private void detect(MethodDeclaration method, String list) {
+    List<String> iterations = iterations(list);
+    Set<String> variant = variant(method, list);
+    Map<String, List<String>> tagsByScope = new LinkedHashMap<>();
+    Map<String, List<MethodCallExpr>> scansByScope = new LinkedHashMap<>();
+    Map<String, List<String>> invariantTags = new LinkedHashMap<>();
+    Map<String, Integer> items = new LinkedHashMap<>();
+    for (MethodCallExpr call : method.findAll(MethodCallExpr.class)) {
+      if (call.getNameAsString().equals(NodeBindings.ITEM) && call.getScope().isPresent()) {
+        String indexed = NodeBindings.variable(call.getScope().get());
+        if (indexed != null && call.getArguments().size() == 1 && !call.getArgument(0).isIntegerLiteralExpr()) {
+          items.merge(indexed + ".item(" + call.getArgument(0) + ")", 1, Integer::sum);
+        }
+        continue;
+      }
+      if (!call.getNameAsString().equals(NodeBindings.GET_ELEMENTS_BY_TAG_NAME)) continue;
+      Expression scopeExpression;
+      Expression tagExpression;
+      if (call.getArguments().size() == 1 && call.getScope().isPresent()) {
+        scopeExpression = call.getScope().get();
+        tagExpression = call.getArgument(0);
+      } else if (call.getArguments().size() == 2) {
+        scopeExpression = call.getArgument(0);
+        tagExpression = call.getArgument(1);
+      } else {
+        continue;
+      }
+      String scope = canonical(NodeBindings.variable(scopeExpression));
+      if (scope == null) continue;
+      String tag = ConstantIndex.reference(tagExpression);
+      (variant.contains(scope) ? tagsByScope : invariantTags).computeIfAbsent(scope, s -> new ArrayList<>()).add(tag);
+      if (variant.contains(scope)) scansByScope.computeIfAbsent(scope, s -> new ArrayList<>()).add(call);
+    }
+    String name = method.getNameAsString();
+    tagsByScope.forEach((scope, tags) -> {
+      Set<String> distinct = new LinkedHashSet<>(tags);
+      List<MethodCallExpr> scans = scansByScope.get(scope);
+      Set<String> repeatedTags = new HashSet<>();
+      int redundant = 0;
+      for (int i = 1; i < tags.size(); i++) {
+        for (int j = 0; j < i; j++) {
+          if (tags.get(j).equals(tags.get(i)) && !exclusive(scans.get(j), scans.get(i))) {
+            repeatedTags.add(tags.get(i));
+            redundant++;
+            break;
+          }
+        }
+      }
+      if (redundant > 0) {
+        List<String> repeated = new ArrayList<>(distinct);
+        repeated.retainAll(repeatedTags);
+        findings.add(new Finding(name, Kind.REPEATED_SCAN, scope, repeated, redundant, iterations));
+      }
+      if (distinct.size() > 1) {
+        findings.add(new Finding(name, Kind.SUBTREE_RESCAN, scope, new ArrayList<>(distinct), distinct.size() - 1,
+          iterations));
+      }
+    });
+    invariantTags.forEach((scope, tags) ->
+      findings.add(new Finding(name, Kind.INVARIANT_SCAN, scope, tags, tags.size(), iterations)));
+    items.forEach((item, count) -> {
+      if (count > 1) {
+        String indexed = item.substring(0, item.indexOf(".item("));
+        String index = item.substring(indexed.length() + ".item(".length(), item.length() - 1);
+        findings.add(new Finding(name, Kind.REPEATED_ITEM, indexed, List.of(index), count - 1, iterations));
+      }
+    });
+  }
+
+  // Whether no call of the method runs both, i.e. their nearest common ancestor is an if with one in each branch, as
+  // the CUSTOMER lookups of nextOrder that depend on the release number.
+  private static boolean exclusive(Node a, Node b) {
+    Set<Node> ancestors = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Node node = a; node != null; node = node.getParentNode().orElse(null)) ancestors.add(node);
+    Node child = b;
+    Node common = b.getParentNode().orElse(null);
+    while (common != null && !ancestors.contains(common)) {
+      child = common;
+      common = common.getParentNode().orElse(null);
+    }
+    if (!(common instanceof IfStmt)) return false;
+    IfStmt ifStmt = (IfStmt) common;
+    Node elseStmt = ifStmt.getElseStmt().orElse(null);
+    if (child == ifStmt.getThenStmt()) return elseStmt != null && ancestors.contains(elseStmt);
+    return child == elseStmt && ancestors.contains(ifStmt.getThenStmt());
+  }
+
+  // An item alias such as orderLineNode stands for the current element of its list, orderLineNodeList.
+  private String canonical(String variable) {
+    List<NodeBindings.Binding> aliases = bindings.get(variable);
+    if (aliases.isEmpty()) return variable;
+    for (NodeBindings.Binding binding : aliases) {
+      if (binding.getKind() != NodeBindings.Kind.ITEM) return variable;
+    }
+    return aliases.get(0).getParent();
+  }
+
+  // The tags of the lists enclosing the iterated list, e.g. ORDER, ORDER_LINE for orderLineNodeList.
+  private List<String> iterations(String list) {
+    List<String> iterations = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (String variable = list; variable != null && seen.add(variable);) {
+      NodeBindings.Binding binding = bindings.tagBinding(variable);
+      if (binding == null) break;
+      if (binding.getKind() == NodeBindings.Kind.LIST) iterations.add(0, binding.getTagConstant());
+      variable = binding.getParent();
+    }
+    return iterations;
+  }
+
+  // Variables whose value changes from one call to the next: the iterated list and, in source order, whatever the
+  // method assigns from a variable that changes.
+  private static Set<String> variant(MethodDeclaration method, String list) {
+    Set<String> variant = new HashSet<>();
+    variant.add(list);
+    method.walk(node -> {
+      String target = null;
+      Expression value = null;
+      if (node instanceof AssignExpr) {
+        target = NodeBindings.variable(((AssignExpr) node).getTarget());
+        value = ((AssignExpr) node).getValue();
+      } else if (node instanceof VariableDeclarator && ((VariableDeclarator) node).getInitializer().isPresent()) {
+        target = ((VariableDeclarator) node).getNameAsString();
+        value = ((VariableDeclarator) node).getInitializer().get();
+      }
+      if (target == null) return;
+      for (NameExpr name : value.findAll(NameExpr.class)) {
+        if (variant.contains(name.getNameAsString())) {
+          variant.add(target);
+          return;
+        }
+      }
+    });
+    return variant;
+  }
+}
@@ -0,0 +1,264 @@
+package attempt2;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates an immutable snapshot of a DOM parser class, so a transaction read through the mutable cursor on one
+ * thread can be processed by many. The snapshot drives the cursor once: it calls every getter that reads attributes
+ * at every position of the next method it depends on, and keeps the values in nested snapshots with the same getter
+ * names, e.g. an Order per nextOrder holding its OrderLines per nextOrderLine. A getter that threw keeps its exception
+ * and throws it again on every call. The generated {@code process} method fans a list of snapshots out to an
+ * {@code ExecutorService}.
+ * <p>
+ * A getter belongs to the innermost next method whose list its node variables are searched below, or, failing that,
+ * which assigns them; getters depending on no next method are read once for the whole transaction. Dates are copied
+ * in and out; values of other mutable types are shared as the DOM class returns them.
+ */
+public class SnapshotGenerator {
+  static final String SUFFIX = "Snapshot";
+  private static final String NEXT = "next";
+
+  private final ParserClassModel model;
+  private final NodeBindings bindings;
+  private final Map<String, String> cursors;
+  private final Map<String, Level> levels = new LinkedHashMap<>();
+  private final Level transaction;
+  private final Set<String> cursorExceptions = new LinkedHashSet<>();
+  private final StringBuilder out = new StringBuilder();
+  private int indent;
+
+  private SnapshotGenerator(ParserClassModel model) {
+    this.model = model;
+    this.bindings = model.getBindings();
+    this.cursors = new LinkedHashMap<>(bindings.cursors());
+    cursors.values().removeIf(method -> !model.getAccessors().containsKey(method));
+    transaction = new Level(className(model), null, null);
+    cursors.forEach((list, method) -> levels.put(list, new Level(method.substring(NEXT.length()), list, method)));
+    for (Level level : levels.values()) {
+      Level parent = levels.get(bindings.enclosingCursor(level.list));
+      if (parent == null || parent.isWithin(level)) parent = transaction;
+      level.parent = parent;
+      parent.children.add(level);
+      cursorExceptions.addAll(model.getAccessors().get(level.method).getThrownTypes());
+    }
+    for (XMLAttribute attribute : model.getAttributes()) {
+      String method = attribute.getMethodName();
+      if (!model.getAccessors().containsKey(method) || cursors.containsValue(method)) continue;
+      Level level = levels.getOrDefault(bindings.cursor(attribute.getXmlNodeVariable()), transaction);
+      Getter getter = getter(method);
+      if (getter == null) {
+        level.getters.add(new Getter(method, attribute.getType(), level));
+      } else if (level.depth() > getter.level.depth()) {
+        getter.level.getters.remove(getter);
+        level.getters.add(new Getter(method, attribute.getType(), level));
+      }
+    }
+  }
+
+  public static String className(ParserClassModel model) {
+    return model.getClassName() + SUFFIX;
+  }
+
+  public static String generate(ParserClassModel model) {
+    return new SnapshotGenerator(model).generate();
+  }
+
+  private Getter getter(String method) {
+    for (Level level : levels.values()) {
+      for (Getter getter : level.getters) if (getter.method.equals(method)) return getter;
+    }
+    for (Getter getter : transaction.getters) if (getter.method.equals(method)) return getter;
+    return null;
+  }
+
+  private String generate() {
+    if (model.getPackageName() != null) {
+      line("package " + model.getPackageName() + ";");
+      line("");
+    }
+    Set<String> imports = new LinkedHashSet<>(List.of("java.util.ArrayList", "java.util.Date", "java.util.List",
+      "java.util.concurrent.ExecutionException", "java.util.concurrent.ExecutorService",
+      "java.util.concurrent.Future"));
+    imports.addAll(model.getImports());
+    imports.forEach(name -> line("import " + name + ";"));
+    line("");
+    line("/**");
+    line(" * Immutable snapshot of the values read through " + model.getClassName() + ", generated by "
+      + SnapshotGenerator.class.getName() + "; do not edit.");
+    line(" * Safe to share between threads once constructed, see {@link #process}.");
+    line(" */");
+    line("public final class " + className(model) + " {");
+    indent++;
+    fields(transaction);
+    line("");
+    line("/**");
+    line(" * Reads the transaction through all next methods of the parser, which must not have been moved yet.");
+    line(" */");
+    constructor(transaction, "public " + className(model));
+    getters(transaction);
+    for (Level level : levels.values()) {
+      line("");
+      line("public static final class " + level.name + " {");
+      indent++;
+      fields(level);
+      line("");
+      constructor(level, "private " + level.name);
+      getters(level);
+      indent--;
+      line("}");
+    }
+    runtime();
+    indent--;
+    line("}");
+    return out.toString();
+  }
+
+  private void fields(Level level) {
+    if (!level.getters.isEmpty()) {
+      line("private final Object[] values;");
+      line("private final Exception[] failures;");
+    }
+    for (Level child : level.children) line("private final List<" + child.name + "> " + child.listName() + ";");
+  }
+
+  private void constructor(Level level, String declaration) {
+    line(declaration + "(" + model.getClassName() + " parser)" + GeneratedCode.throwsClause(cursorExceptions) + " {");
+    indent++;
+    if (!level.getters.isEmpty()) {
+      line("Object[] values = new Object[" + level.getters.size() + "];");
+      line("Exception[] failures = new Exception[" + level.getters.size() + "];");
+    }
+    for (int i = 0; i < level.getters.size(); i++) {
+      line("read(values, failures, " + i + ", parser::" + level.getters.get(i).method + ");");
+    }
+    for (Level child : level.children) {
+      line("List<" + child.name + "> " + child.listName() + " = new ArrayList<>();");
+      line("while (parser." + child.method + "()) {");
+      line("  " + child.listName() + ".add(new " + child.name + "(parser));");
+      line("}");
+    }
+    if (!level.getters.isEmpty()) {
+      line("this.values = values;");
+      line("this.failures = failures;");
+    }
+    for (Level child : level.children) line("this." + child.listName() + " = List.copyOf(" + child.listName() + ");");
+    indent--;
+    line("}");
+  }
+
+  private void getters(Level level) {
+    for (Level child : level.children) {
+      line("");
+      line("public List<" + child.name + "> get" + child.name + "s() {");
+      line("  return " + child.listName() + ";");
+      line("}");
+    }
+    for (int i = 0; i < level.getters.size(); i++) {
+      Getter getter = level.getters.get(i);
+      List<String> thrown = model.getAccessors().get(getter.method).getThrownTypes();
+      line("");
+      line("public " + getter.type + " " + getter.method + "()" + GeneratedCode.throwsClause(thrown) + " {");
+      line("  return (" + GeneratedCode.boxed(getter.type) + ") value(values, failures, " + i + ");");
+      line("}");
+    }
+  }
+
+  // The fixed part: capturing values and failures, rethrowing and parallel processing.
+  private void runtime() {
+    line("");
+    line("/**");
+    line(" * Work on one snapshot, which may throw what its getters throw.");
+    line(" */");
+    line("public interface Work<T, R> {");
+    line("  R apply(T snapshot) throws Exception;");
+    line("}");
+    line("");
+    line("/**");
+    line(" * Applies the work to every snapshot on the pool and returns the results in the order of the snapshots. A");
+    line(" * failure is thrown as the cause of an ExecutionException.");
+    line(" */");
+    line("public static <T, R> List<R> process(List<T> snapshots, ExecutorService pool, Work<T, R> work)");
+    line("    throws InterruptedException, ExecutionException {");
+    line("  List<Future<R>> futures = new ArrayList<>(snapshots.size());");
+    line("  for (T snapshot : snapshots) futures.add(pool.submit(() -> work.apply(snapshot)));");
+    line("  List<R> results = new ArrayList<>(futures.size());");
+    line("  for (Future<R> future : futures) results.add(future.get());");
+    line("  return results;");
+    line("}");
+    line("");
+    line("private interface Getter {");
+    line("  Object get() throws Exception;");
+    line("}");
+    line("");
+    line("private static void read(Object[] values, Exception[] failures, int index, Getter getter) {");
+    line("  try {");
+    line("    values[index] = copy(getter.get());");
+    line("  } catch (Exception e) {");
+    line("    failures[index] = e;");
+    line("  }");
+    line("}");
+    line("");
+    line("private static Object value(Object[] values, Exception[] failures, int index) {");
+    line("  " + GeneratedCode.rethrowIfFailed(className(model), "failures[index]"));
+    line("  return copy(values[index]);");
+    line("}");
+    line("");
+    GeneratedCode.copy(this::line);
+    line("");
+    GeneratedCode.rethrow(this::line);
+  }
+
+  private void line(String text) {
+    if (!text.isEmpty()) out.append("  ".repeat(indent));
+    out.append(text).append('\n');
+  }
+
+  private static final class Level {
+    private final String name;
+    private final String list;
+    private final String method;
+    private final List<Level> children = new ArrayList<>();
+    private final List<Getter> getters = new ArrayList<>();
+    private Level parent;
+
+    private Level(String name, String list, String method) {
+      this.name = name;
+      this.list = list;
+      this.method = method;
+    }
+
+    private String listName() {
+      return Character.toLowerCase(name.charAt(0)) + name.substring(1) + "s";
+    }
+
+    private int depth() {
+      int depth = 0;
+      for (Level level = parent; level != null; level = level.parent) depth++;
+      return depth;
+    }
+
+    private boolean isWithin(Level ancestor) {
+      for (Level level = this; level != null; level = level.parent) {
+        if (level == ancestor) return true;
+      }
+      return false;
+    }
+  }
+
+  private static final class Getter {
+    private final String method;
+    private final String type;
+    private final Level level;
+
+    private Getter(String method, String type, Level level) {
+      this.method = method;
+      this.type = type;
+      this.level = level;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package attempt2;
+
+import com.github.javaparser.Provider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads sources by memory-mapping them and decodes them exactly once with an explicit charset, independent of the
+ * platform default. The mapped bytes serve the lexical pre-filter and the content hash, the decoded characters are
+ * handed to the parser as a {@link Provider} without another copy into a String or Reader.
+ */
+public class SourceLoader {
+  // Our parser sources are ISO-8859-1. Decoding never fails in it, and identifiers and tokens are ASCII anyway.
+  // Other charsets report undecodable input instead of replacing it, as it means the wrong --charset was given.
+  public static final Charset DEFAULT_CHARSET = StandardCharsets.ISO_8859_1;
+
+  private final Charset charset;
+
+  public SourceLoader() {
+    this(DEFAULT_CHARSET);
+  }
+
+  public SourceLoader(Charset charset) {
+    this.charset = charset;
+  }
+
+  public Charset charset() {
+    return charset;
+  }
+
+  public Source load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) throw new IOException(path + " is too large: " + size + " bytes");
+      return new Source(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  public class Source {
+    private final Path path;
+    private final ByteBuffer bytes;
+
+    private Source(Path path, ByteBuffer bytes) {
+      this.path = path;
+      this.bytes = bytes;
+    }
+
+    public Path path() {
+      return path;
+    }
+
+    /**
+     * A read-only view of the mapped content with its own position.
+     */
+    public ByteBuffer bytes() {
+      return bytes.asReadOnlyBuffer();
+    }
+
+    /**
+     * @throws CharacterCodingException if the content is not valid in the loader's charset
+     */
+    public CharBuffer chars() throws CharacterCodingException {
+      return charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT)
+        .decode(bytes());
+    }
+
+    public Provider provider() throws CharacterCodingException {
+      CharBuffer chars = chars();
+      return new Provider() {
+        @Override
+        public int read(char[] buffer, int offset, int len) {
+          if (!chars.hasRemaining()) return -1;
+          int count = Math.min(len, chars.remaining());
+          chars.get(buffer, offset, count);
+          return count;
+        }
+
+        @Override
+        public void close() {
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,476 @@
+package attempt2;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the source of a streaming {@code XMLStreamReader} counterpart of a DOM parser class with the same cursor
+ * and getter names, so a document is read in one pass instead of being built as a tree first.
+ * <p>
+ * The generated class keeps the attributes of the latest element of every tag the DOM class binds a node variable to,
+ * keyed by the nearest enclosing element whose tag is bound as well (ORDER_HEAD/CUSTOMER, BOX_LINE/CUSTOMER_PRODUCT).
+ * Its next methods read ahead to the next element of their list and capture everything below it up to the next
+ * element of any list, so the calls have to follow the document order. Constants are statically imported from the DOM
+ * class, which has to stay on the class path.
+ * <p>
+ * The getters keep the contract of the DOM class: the declared return and thrown types, coded values converted to
+ * their enum, and for an absent or empty attribute the exception of its parse function (the *FieldMissingException
+ * types imported by the DOM class), the optional one where the DOM getter turns a missing required field into a
+ * missing optional one, or the literal the DOM getter returns after swallowing it. Getters reading more than one
+ * attribute, nodes that are not bound in the class itself, and getters whose value or handling of a missing field
+ * the generator cannot reproduce are listed in a comment instead of being generated.
+ * <p>
+ * What the DOM class inherits rather than shows is left abstract for a subclass to supply: the construction of a
+ * missing field exception the class never constructs itself, and the boolean and date formats of its parse functions.
+ */
+public class StaxReaderGenerator {
+  static final String SUFFIX = "Stax";
+  private static final String ROOT = "ROOT";
+
+  private final ParserClassModel model;
+  private final NodeBindings bindings;
+  private final StringBuilder out = new StringBuilder();
+  // The missing field factories the getters call, and of those and the conversions the methods generated abstract.
+  private final Set<String> factories = new LinkedHashSet<>();
+  private final Set<String> hooks = new LinkedHashSet<>();
+  private int indent;
+
+  private StaxReaderGenerator(ParserClassModel model) {
+    this.model = model;
+    this.bindings = model.getBindings();
+  }
+
+  public static String className(ParserClassModel model) {
+    return model.getClassName() + SUFFIX;
+  }
+
+  public static String generate(ParserClassModel model) {
+    return new StaxReaderGenerator(model).generate();
+  }
+
+  private String generate() {
+    Map<String, List<XMLAttribute>> byMethod = new LinkedHashMap<>();
+    for (XMLAttribute attribute : model.getAttributes()) {
+      byMethod.computeIfAbsent(attribute.getMethodName(), m -> new ArrayList<>()).add(attribute);
+    }
+    List<XMLAttribute> getters = new ArrayList<>();
+    List<String> skipped = new ArrayList<>();
+    for (var entry : byMethod.entrySet()) {
+      List<XMLAttribute> attributes = entry.getValue();
+      String unsupported = attributes.size() == 1 ? unsupported(attributes.get(0)) : null;
+      if (attributes.size() != 1) {
+        skipped.add(entry.getKey() + " reads " + attributes.size() + " attributes");
+      } else if (attributes.get(0).getAttributeConstant() == null) {
+        skipped.add(entry.getKey() + " reads an attribute named by an expression");
+      } else if (bindings.tagBinding(attributes.get(0).getXmlNodeVariable()) == null) {
+        skipped.add(entry.getKey() + " reads " + attributes.get(0).getXmlNodeVariable() + ", which is not bound here");
+      } else if (unsupported != null) {
+        skipped.add(entry.getKey() + " " + unsupported);
+      } else {
+        getters.add(attributes.get(0));
+      }
+    }
+    Set<String> nodes = new LinkedHashSet<>();
+    getters.forEach(attribute -> nodes.add(attribute.getXmlNodeVariable()));
+    for (boolean optional : new boolean[] {false, true}) {
+      for (XMLAttribute attribute : getters) {
+        String missing = missing(attribute, model.getAccessors().get(attribute.getMethodName()));
+        if (missing.startsWith("throw " + missingFactory(optional) + "(")) factories.add(missingFactory(optional));
+      }
+      if (factories.contains(missingFactory(optional)) && missingArguments(optional) == null) {
+        hooks.add(missingFactory(optional));
+      }
+    }
+    for (XMLAttribute attribute : getters) {
+      ParseFunction.ValueKind kind = attribute.getParseFunction().getValueKind();
+      if (kind == ParseFunction.ValueKind.BOOLEAN || kind == ParseFunction.ValueKind.DATE) {
+        hooks.add("to" + RecordGenerator.camel(kind.name()));
+      }
+    }
+
+    header();
+    line("public " + (hooks.isEmpty() ? "" : "abstract ") + "class " + className(model) + " {");
+    indent++;
+    fields(nodes);
+    line("public " + className(model) + "(XMLStreamReader reader) {");
+    line("  this.reader = reader;");
+    line("  scopes.add(ROOT);");
+    line("}");
+    bindings.cursors().forEach(this::cursor);
+    for (XMLAttribute attribute : getters) getter(attribute);
+    if (!skipped.isEmpty()) {
+      line("");
+      line("// Not generated:");
+      skipped.forEach(reason -> line("// " + reason));
+    }
+    runtime();
+    indent--;
+    line("}");
+    return out.toString();
+  }
+
+  private void header() {
+    if (model.getPackageName() != null) {
+      line("package " + model.getPackageName() + ";");
+      line("");
+    }
+    Set<String> imports = new LinkedHashSet<>(List.of("java.util.ArrayList", "java.util.Arrays", "java.util.Date",
+      "java.util.HashMap", "java.util.HashSet", "java.util.List", "java.util.Map", "java.util.Set",
+      "javax.xml.stream.XMLStreamConstants", "javax.xml.stream.XMLStreamException",
+      "javax.xml.stream.XMLStreamReader"));
+    // The declared types of the getters and the qualifiers of the constants come from the DOM class.
+    imports.addAll(model.getImports());
+    imports.forEach(name -> line("import " + name + ";"));
+    line("");
+    // Types in the default package cannot be imported, so their constants stay unresolved there.
+    if (model.getPackageName() != null) {
+      line("import static " + model.getPackageName() + "." + model.getClassName() + ".*;");
+      line("");
+    }
+    line("/**");
+    line(" * Streaming counterpart of " + model.getClassName() + ", generated by "
+      + StaxReaderGenerator.class.getName() + "; do not edit.");
+    if (!hooks.isEmpty()) {
+      line(" * Abstract: implement " + String.join(", ", hooks) + " as the class " + model.getClassName()
+        + " extends does.");
+    }
+    line(" */");
+  }
+
+  /**
+   * The imports of the DOM class declaring the qualifiers of the constants, e.g. ForecastTypes for
+   * ForecastTypes.CUMULATED. Null constants are ignored.
+   */
+  static Set<String> qualifierImports(ParserClassModel model, List<String> constants) {
+    Set<String> qualifiers = new LinkedHashSet<>();
+    for (String constant : constants) {
+      if (constant != null && constant.indexOf('.') > 0) qualifiers.add(constant.substring(0, constant.indexOf('.')));
+    }
+    Set<String> imports = new LinkedHashSet<>();
+    for (String name : model.getImports()) {
+      if (qualifiers.contains(name.substring(name.lastIndexOf('.') + 1))) imports.add(name);
+    }
+    return imports;
+  }
+
+  private void fields(Set<String> nodes) {
+    Set<String> tags = new LinkedHashSet<>();
+    for (String variable : bindings.variables()) {
+      String tag = bindings.tag(variable);
+      if (tag != null) tags.add(tag);
+    }
+    Set<String> cursorTags = new LinkedHashSet<>();
+    bindings.cursors().keySet().forEach(list -> cursorTags.add(bindings.tag(list)));
+    line("private static final String ROOT = \"\";");
+    line("private static final Set<String> TRACKED = new HashSet<>(Arrays.asList(" + String.join(", ", tags) + "));");
+    line("private static final Set<String> CURSORS = new HashSet<>(Arrays.asList("
+      + String.join(", ", cursorTags) + "));");
+    for (String node : nodes) {
+      line("private static final String[] " + keysField(node) + " = {" + String.join(", ", keys(node)) + "};");
+    }
+    line("");
+    line("private final XMLStreamReader reader;");
+    line("private final Map<String, Element> elements = new HashMap<>();");
+    line("private final List<String> scopes = new ArrayList<>();");
+    line("private int depth;");
+    line("private long sequence;");
+    line("private boolean pending;");
+    line("");
+  }
+
+  // One key per tag binding of the node: the tag of the variable searched below and the tag itself.
+  private List<String> keys(String node) {
+    Set<String> keys = new LinkedHashSet<>();
+    for (NodeBindings.Binding binding : bindingsWithTag(node)) {
+      String scope = bindings.tag(binding.getParent());
+      keys.add((scope == null ? ROOT : scope) + " + \"/\" + " + binding.getTagConstant());
+    }
+    return new ArrayList<>(keys);
+  }
+
+  private List<NodeBindings.Binding> bindingsWithTag(String variable) {
+    List<NodeBindings.Binding> result = new ArrayList<>();
+    for (NodeBindings.Binding binding : bindings.get(variable)) {
+      if (binding.getKind() != NodeBindings.Kind.ITEM) result.add(binding);
+    }
+    if (result.isEmpty()) result.add(bindings.tagBinding(variable));
+    return result;
+  }
+
+  private static String keysField(String node) {
+    return "KEYS_" + GeneratedCode.constantName(node);
+  }
+
+  private void cursor(String list, String method) {
+    List<String> arguments = new ArrayList<>();
+    arguments.add(bindings.tag(list));
+    Set<String> seen = new LinkedHashSet<>();
+    for (String parent = bindings.tagBinding(list).getParent(); parent != null && seen.add(parent);) {
+      NodeBindings.Binding binding = bindings.tagBinding(parent);
+      if (binding == null) break;
+      arguments.add(binding.getTagConstant());
+      parent = binding.getParent();
+    }
+    line("");
+    line("public boolean " + method + "() throws XMLStreamException {");
+    line("  return next(" + String.join(", ", arguments) + ");");
+    line("}");
+  }
+
+  // Why the getter cannot keep the contract of the DOM class, or null if it can.
+  private String unsupported(XMLAttribute attribute) {
+    ParserClassModel.Accessor accessor = model.getAccessors().get(attribute.getMethodName());
+    if (accessor == null) return "is not a public getter";
+    List<String> callees = model.getCallGraph().getCalls().getOrDefault(accessor.getName(), List.of());
+    if (!callees.isEmpty()) return "also calls " + String.join(", ", new LinkedHashSet<>(callees));
+    ParseFunction.ValueKind kind = attribute.getParseFunction().getValueKind();
+    if (kind == ParseFunction.ValueKind.UNKNOWN) return "reads with the unknown " + attribute.getParseFunction();
+    boolean converted = kind == ParseFunction.ValueKind.STRING && accessor.getConversion() != null;
+    if (!converted && !assignable(valueType(kind, accessor), accessor.getType())) {
+      return "returns " + accessor.getType() + " from a " + valueType(kind, accessor) + " value";
+    }
+    if (missing(attribute, accessor) == null) return "replaces a missing field in code";
+    return null;
+  }
+
+  private static String valueType(ParseFunction.ValueKind kind, ParserClassModel.Accessor accessor) {
+    switch (kind) {
+      case STRING:
+        return "String";
+      case DATE:
+        return "Date";
+      case CODED_VALUE:
+        return accessor.getType();
+      default:
+        return kind.name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  // What the getter returns: the value converted as its parse function does, then as the DOM getter does.
+  private static String expression(ParseFunction.ValueKind kind, ParserClassModel.Accessor accessor) {
+    switch (kind) {
+      case STRING:
+        return accessor.getConversion() == null ? "value" : accessor.getConversion() + "(value)";
+      case CODED_VALUE:
+        return "toCodedValue(value, " + accessor.getType() + ".class)";
+      default:
+        return "to" + RecordGenerator.camel(kind.name()) + "(value)";
+    }
+  }
+
+  // Identity, primitive widening and boxing, the conversions a return statement applies.
+  private static boolean assignable(String from, String to) {
+    if (from.equals(to)) return true;
+    List<String> widening = List.of("int", "long", "float", "double");
+    if (widening.contains(from) && widening.indexOf(to) > widening.indexOf(from)) return true;
+    return to.equals(GeneratedCode.boxed(from));
+  }
+
+  // The statement for an absent or empty attribute, as the DOM getter handles its parse function's exception.
+  private static String missing(XMLAttribute attribute, ParserClassModel.Accessor accessor) {
+    String constant = attribute.getAttributeConstant();
+    ExceptionFlowDetector.Pattern pattern = accessor.getMissingField();
+    if (pattern == null) return "throw " + (attribute.isRequired() ? "missing(" : "optionalMissing(") + constant + ");";
+    if (pattern == ExceptionFlowDetector.Pattern.REQUIRED_TO_OPTIONAL) {
+      return "throw optionalMissing(" + constant + ");";
+    }
+    boolean handled = pattern == ExceptionFlowDetector.Pattern.OPTIONAL_SWALLOWED
+      || pattern == ExceptionFlowDetector.Pattern.OPTIONAL_DEFAULT;
+    if (handled && accessor.getFallback() != null) {
+      return "return " + accessor.getFallback() + ";";
+    }
+    return null;
+  }
+
+  private void getter(XMLAttribute attribute) {
+    ParserClassModel.Accessor accessor = model.getAccessors().get(attribute.getMethodName());
+    String expression = expression(attribute.getParseFunction().getValueKind(), accessor);
+    List<String> thrown = accessor.getThrownTypes();
+    line("");
+    line("public " + accessor.getType() + " " + accessor.getName() + "()"
+      + GeneratedCode.throwsClause(thrown) + " {");
+    line("  String value = attribute(" + keysField(attribute.getXmlNodeVariable()) + ", "
+      + attribute.getAttributeConstant() + ");");
+    line("  if (value == null || value.isEmpty()) " + missing(attribute, accessor));
+    line("  return " + expression + ";");
+    line("}");
+  }
+
+  private static String missingFactory(boolean optional) {
+    return optional ? "optionalMissing" : "missing";
+  }
+
+  // The arguments after the message to construct the missing field exception with, as the DOM class does; null if it
+  // never constructs it.
+  private List<String> missingArguments(boolean optional) {
+    String type = missingException(optional);
+    if (type.equals(IllegalStateException.class.getSimpleName())) return List.of();
+    return model.getMissingFieldArguments().get(type);
+  }
+
+  // The exception type the DOM class imports for a missing field, or IllegalStateException if it imports none.
+  private String missingException(boolean optional) {
+    for (String name : model.getImports()) {
+      String simpleName = name.substring(name.lastIndexOf('.') + 1);
+      boolean optionalType = simpleName.endsWith(ExceptionFlowDetector.OPTIONAL_FIELD_MISSING_EXCEPTION);
+      if (simpleName.endsWith(ExceptionFlowDetector.FIELD_MISSING_EXCEPTION) && optionalType == optional) {
+        return simpleName;
+      }
+    }
+    return IllegalStateException.class.getSimpleName();
+  }
+
+  // The fixed part: cursor movement, attribute capture and value conversion.
+  private void runtime() {
+    line("");
+    line("private boolean next(String tag, String... enclosing) throws XMLStreamException {");
+    line("  while (true) {");
+    line("    int event = pending ? reader.getEventType() : advance();");
+    line("    pending = false;");
+    line("    if (event == XMLStreamConstants.END_DOCUMENT) {");
+    line("      pending = true;");
+    line("      return false;");
+    line("    }");
+    line("    if (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) continue;");
+    line("    String name = reader.getLocalName();");
+    line("    if (Arrays.asList(enclosing).contains(name)) {");
+    line("      pending = true;");
+    line("      return false;");
+    line("    }");
+    line("    if (event == XMLStreamConstants.START_ELEMENT) {");
+    line("      capture(name);");
+    line("      if (name.equals(tag)) {");
+    line("        readBody();");
+    line("        return true;");
+    line("      }");
+    line("    }");
+    line("  }");
+    line("}");
+    line("");
+    line("// Captures the elements below the current one, stopping in front of the next element of any list.");
+    line("private void readBody() throws XMLStreamException {");
+    line("  int bodyDepth = depth;");
+    line("  while (true) {");
+    line("    int event = advance();");
+    line("    if (event == XMLStreamConstants.START_ELEMENT) {");
+    line("      if (CURSORS.contains(reader.getLocalName())) {");
+    line("        pending = true;");
+    line("        return;");
+    line("      }");
+    line("      capture(reader.getLocalName());");
+    line("    } else if (event == XMLStreamConstants.END_ELEMENT && depth == bodyDepth) {");
+    line("      return;");
+    line("    } else if (event == XMLStreamConstants.END_DOCUMENT) {");
+    line("      pending = true;");
+    line("      return;");
+    line("    }");
+    line("  }");
+    line("}");
+    line("");
+    line("private int advance() throws XMLStreamException {");
+    line("  if (reader.getEventType() == XMLStreamConstants.END_ELEMENT) scopes.remove(depth--);");
+    line("  int event = reader.next();");
+    line("  if (event == XMLStreamConstants.START_ELEMENT) {");
+    line("    String name = reader.getLocalName();");
+    line("    scopes.add(++depth, TRACKED.contains(name) ? name : scopes.get(depth - 1));");
+    line("  }");
+    line("  return event;");
+    line("}");
+    line("");
+    line("// Elements below the depth of a new element belong to its predecessor and are dropped.");
+    line("private void capture(String name) {");
+    line("  if (!TRACKED.contains(name)) return;");
+    line("  elements.values().removeIf(element -> element.depth > depth);");
+    line("  Map<String, String> attributes = new HashMap<>();");
+    line("  for (int i = 0; i < reader.getAttributeCount(); i++) {");
+    line("    attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));");
+    line("  }");
+    line("  Element element = new Element(depth, ++sequence, attributes);");
+    line("  elements.put(ROOT + \"/\" + name, element);");
+    line("  elements.put(scopes.get(depth - 1) + \"/\" + name, element);");
+    line("}");
+    line("");
+    line("// The attribute of the most recently captured element among the keys.");
+    line("private String attribute(String[] keys, String name) {");
+    line("  Element latest = null;");
+    line("  for (String key : keys) {");
+    line("    Element element = elements.get(key);");
+    line("    if (element != null && (latest == null || element.sequence > latest.sequence)) latest = element;");
+    line("  }");
+    line("  return latest == null ? null : latest.attributes.get(name);");
+    line("}");
+    line("");
+    for (boolean optional : new boolean[] {false, true}) {
+      if (!factories.contains(missingFactory(optional))) continue;
+      String type = missingException(optional);
+      String declaration = type + " " + missingFactory(optional) + "(String name)";
+      List<String> arguments = missingArguments(optional);
+      if (arguments == null) {
+        line("protected abstract " + declaration + ";");
+        line("");
+        continue;
+      }
+      List<String> all = new ArrayList<>();
+      all.add("\"Field \" + name + \" is " + (optional ? "optional" : "missing") + "\"");
+      all.addAll(arguments);
+      if (!arguments.isEmpty()) line("// As " + model.getClassName() + " constructs it.");
+      line("protected " + declaration + " {");
+      line("  return new " + type + "(" + String.join(", ", all) + ");");
+      line("}");
+      line("");
+    }
+    line("protected int toInt(String value) {");
+    line("  return Integer.parseInt(value.trim());");
+    line("}");
+    line("");
+    line("protected long toLong(String value) {");
+    line("  return Long.parseLong(value.trim());");
+    line("}");
+    line("");
+    line("protected double toDouble(String value) {");
+    line("  return Double.parseDouble(value.trim());");
+    line("}");
+    line("");
+    line("protected float toFloat(String value) {");
+    line("  return Float.parseFloat(value.trim());");
+    line("}");
+    line("");
+    if (hooks.contains("toBoolean")) {
+      line("protected abstract boolean toBoolean(String value);");
+      line("");
+    }
+    if (hooks.contains("toDate")) {
+      line("protected abstract Date toDate(String value);");
+      line("");
+    }
+    line("// The constant whose name or text is the value; override for coded values with other codes.");
+    line("protected <E extends Enum<E>> E toCodedValue(String value, Class<E> type) {");
+    line("  for (E constant : type.getEnumConstants()) {");
+    line("    if (constant.name().equals(value) || constant.toString().equals(value)) return constant;");
+    line("  }");
+    line("  throw new IllegalArgumentException(value + \" is not a \" + type.getSimpleName());");
+    line("}");
+    line("");
+    line("private static final class Element {");
+    line("  private final int depth;");
+    line("  private final long sequence;");
+    line("  private final Map<String, String> attributes;");
+    line("");
+    line("  private Element(int depth, long sequence, Map<String, String> attributes) {");
+    line("    this.depth = depth;");
+    line("    this.sequence = sequence;");
+    line("    this.attributes = attributes;");
+    line("  }");
+    line("}");
+  }
+
+  private void line(String text) {
+    if (!text.isEmpty()) out.append("  ".repeat(indent));
+    out.append(text).append('\n');
+  }
+}
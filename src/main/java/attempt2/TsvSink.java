@@ -0,0 +1,42 @@
+package attempt2;
+
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+
+/**
+ * One tab separated row per attribute, starting with its source file, for loading into spreadsheets and databases.
+ * Absent values are written as empty fields.
+ */
+public class TsvSink extends WriterSink {
+  static final String HEADER = "source\tmethodName\txmlNodeVariable\telementPath\ttype\tparseFunction\trequired"
+    + "\tattributeConstant\tattributeName\tresolvedElementPath";
+
+  private String source = "";
+
+  public TsvSink(Writer out) {
+    super(out);
+    line(HEADER);
+  }
+
+  @Override
+  public void source(Path source) {
+    this.source = source.toString();
+  }
+
+  @Override
+  public void attribute(XMLAttribute attribute) {
+    line(new StringJoiner("\t")
+      .add(source)
+      .add(attribute.getMethodName())
+      .add(attribute.getXmlNodeVariable())
+      .add(attribute.getElementPath() == null ? "" : attribute.getElementPath())
+      .add(attribute.getType())
+      .add(attribute.getParseFunction().getName())
+      .add(Boolean.toString(attribute.isRequired()))
+      .add(attribute.getAttributeConstant() == null ? "" : attribute.getAttributeConstant())
+      .add(attribute.getAttributeName() == null ? "" : attribute.getAttributeName())
+      .add(attribute.getResolvedElementPath() == null ? "" : attribute.getResolvedElementPath())
+      .toString());
+  }
+}
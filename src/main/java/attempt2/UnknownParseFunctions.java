@@ -0,0 +1,57 @@
+package attempt2;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Passes attributes on to another sink and remembers parse functions outside the {@link ParseFunction} taxonomy, so
+ * a run over sources with new parse functions completes and lists them as diagnostics when the sink is closed.
+ */
+public class UnknownParseFunctions implements AttributeSink {
+  private final AttributeSink sink;
+  private final PrintStream diagnostics;
+  private final Map<String, Occurrences> unknown = new TreeMap<>();
+  private Path source;
+
+  public UnknownParseFunctions(AttributeSink sink, PrintStream diagnostics) {
+    this.sink = sink;
+    this.diagnostics = diagnostics;
+  }
+
+  @Override
+  public void source(Path source) {
+    this.source = source;
+    sink.source(source);
+  }
+
+  @Override
+  public void attribute(XMLAttribute attribute) {
+    if (!attribute.getParseFunction().isKnown()) {
+      unknown.computeIfAbsent(attribute.getParseFunction().getName(), name -> new Occurrences(source)).count++;
+    }
+    sink.attribute(attribute);
+  }
+
+  @Override
+  public void flush() {
+    sink.flush();
+  }
+
+  @Override
+  public void close() {
+    sink.close();
+    unknown.forEach((name, occurrences) -> diagnostics.println("unknown parse function " + name + ": "
+      + occurrences.count + " call(s), first in " + occurrences.first));
+  }
+
+  private static final class Occurrences {
+    private final Path first;
+    private int count;
+
+    private Occurrences(Path first) {
+      this.first = first;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package attempt2;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the attribute model of one or more source directories up to date by re-extracting only the *.java files
+ * that change. Events arriving within the debounce interval of each other are handled as one batch, after which the
+ * extraction cache, if any, is saved. Sources that fail to parse, on the first pass or later, are reported and skipped
+ * until they parse again.
+ */
+public class WatchMode {
+  private final BatchExtraction extraction;
+  private final long debounceMillis;
+  private final NavigableMap<Path, List<XMLAttribute>> model = new ConcurrentSkipListMap<>();
+  private final Map<WatchKey, Path> directories = new HashMap<>();
+
+  public WatchMode(BatchExtraction extraction, long debounceMillis) {
+    this.extraction = extraction;
+    this.debounceMillis = debounceMillis;
+  }
+
+  /**
+   * The current attributes per source file. Safe to read from other threads while watching.
+   */
+  public NavigableMap<Path, List<XMLAttribute>> model() {
+    return model;
+  }
+
+  /**
+   * Extracts all sources below the roots, then blocks and re-extracts changed files until interrupted.
+   * The listener receives every (re-)extracted file, and an empty list for deleted files.
+   */
+  public void watch(List<Path> roots, BiConsumer<Path, List<XMLAttribute>> listener) throws IOException, InterruptedException {
+    try (WatchService service = FileSystems.getDefault().newWatchService()) {
+      List<Path> sources = new ArrayList<>();
+      for (Path root : roots) {
+        register(service, root);
+        sources.addAll(BatchExtraction.collectSources(root.toString()));
+      }
+      extraction.run(sources, WatchMode::failed).forEach((source, attributes) -> {
+        model.put(source, attributes);
+        listener.accept(source, attributes);
+      });
+      saveCache();
+      while (!Thread.currentThread().isInterrupted()) {
+        Set<Path> changed = new TreeSet<>();
+        WatchKey key = service.take();
+        do {
+          collect(service, key, changed);
+        } while ((key = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null);
+        update(changed, listener);
+        saveCache();
+      }
+    }
+  }
+
+  private void register(WatchService service, Path root) throws IOException {
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (Path directory : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+        WatchKey key = directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        directories.put(key, directory);
+      }
+    }
+  }
+
+  private void collect(WatchService service, WatchKey key, Set<Path> changed) throws IOException {
+    Path directory = directories.get(key);
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        // Events were lost, fall back to re-checking everything known in this directory.
+        model.keySet().stream().filter(source -> directory.equals(source.getParent())).forEach(changed::add);
+        changed.addAll(BatchExtraction.collectSources(directory.toString()));
+        continue;
+      }
+      Path path = directory.resolve((Path) event.context());
+      if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+        register(service, path);
+        changed.addAll(BatchExtraction.collectSources(path.toString()));
+      } else if (path.toString().endsWith(".java")) {
+        changed.add(path);
+      }
+    }
+    if (!key.reset()) directories.remove(key);
+  }
+
+  private void update(Set<Path> changed, BiConsumer<Path, List<XMLAttribute>> listener) {
+    for (Path source : changed) {
+      if (!Files.isRegularFile(source)) {
+        if (model.remove(source) != null) listener.accept(source, List.of());
+        continue;
+      }
+      try {
+        List<XMLAttribute> attributes = extraction.extract(source);
+        model.put(source, attributes);
+        listener.accept(source, attributes);
+      } catch (RuntimeException e) {
+        // Typically a file saved mid-edit, keep the previous attributes until it parses again.
+        failed(source, e);
+      }
+    }
+  }
+
+  private static void failed(Path source, RuntimeException e) {
+    System.err.println(source + ": " + e.getMessage());
+  }
+
+  // A failed save only costs re-extraction on the next start, so watching goes on.
+  private void saveCache() {
+    try {
+      extraction.saveCache();
+    } catch (IOException e) {
+      System.err.println("cache not saved: " + e);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package attempt2;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes one line per attribute, as {@link XMLAttribute#toString()}, through a large buffer that is only flushed when
+ * full or closed, unlike System.out which synchronizes and may flush on every line.
+ */
+public class WriterSink implements AttributeSink {
+  static final int BUFFER_SIZE = 1 << 16;
+
+  private final Writer out;
+
+  public WriterSink(Writer out) {
+    this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER_SIZE);
+  }
+
+  /**
+   * A buffered UTF-8 writer for the file, or for the stdout file descriptor if file is null.
+   */
+  public static Writer open(Path file) throws IOException {
+    if (file == null) {
+      return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8),
+        BUFFER_SIZE);
+    }
+    return new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  // The plain text output lists attributes only; the tsv and plan formats carry the source.
+  @Override
+  public void source(Path source) {
+  }
+
+  @Override
+  public void attribute(XMLAttribute attribute) {
+    line(attribute.toString());
+  }
+
+  protected void line(String line) {
+    try {
+      out.write(line);
+      out.write(System.lineSeparator());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void flush() {
+    try {
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      out.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
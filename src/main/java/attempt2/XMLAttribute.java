@@ -7,31 +7,151 @@ import java.util.StringJoiner;
 
 public class XMLAttribute {
   private final String xmlNodeVariable;
+  private final String elementPath;
   private final String type;
-  private final boolean required;
+  private final ParseFunction parseFunction;
+  private final String attributeConstant;
+  private final String attributeName;
+  private final String resolvedElementPath;
+  private final String methodName;
 
   public XMLAttribute(MethodCallExpr methodCallExpr) {
+    this(methodCallExpr, enclosingMethod(methodCallExpr));
+  }
+
+  // Looks the enclosing method up once for both its name and its type.
+  private XMLAttribute(MethodCallExpr methodCallExpr, MethodDeclaration method) {
+    this(methodCallExpr, method.getNameAsString(), method.getType().asString());
+  }
+
+  /**
+   * For callers that already know the enclosing method, which spares the ancestor lookup.
+   */
+  public XMLAttribute(MethodCallExpr methodCallExpr, String methodName, String type) {
+    this(methodCallExpr, methodName, type, null);
+  }
+
+  /**
+   * @param elementPaths of the enclosing class, resolves the element path of the node variable; may be null
+   */
+  public XMLAttribute(MethodCallExpr methodCallExpr, String methodName, String type, ElementPaths elementPaths) {
     String parseFunc = methodCallExpr.getNameAsString();
     if (!parseFunc.startsWith("parse")) throw new RuntimeException(parseFunc + " is not a parseFunc!");
-    this.type = initType(methodCallExpr);
-    this.required = initRequired(parseFunc);
+    this.methodName = methodName;
+    this.type = type;
+    this.parseFunction = ParseFunction.of(parseFunc);
     this.xmlNodeVariable = initXMLNodeVariable(methodCallExpr);
+    this.elementPath = elementPaths == null ? null : elementPaths.path(xmlNodeVariable);
+    this.attributeConstant = initAttributeConstant(methodCallExpr);
+    this.attributeName = null;
+    this.resolvedElementPath = null;
+  }
+
+  XMLAttribute(String methodName, String xmlNodeVariable, String elementPath, String type, String parseFunction,
+               String attributeConstant, String attributeName, String resolvedElementPath) {
+    this.methodName = methodName;
+    this.xmlNodeVariable = xmlNodeVariable;
+    this.elementPath = elementPath;
+    this.type = type;
+    this.parseFunction = ParseFunction.of(parseFunction);
+    this.attributeConstant = attributeConstant;
+    this.attributeName = attributeName;
+    this.resolvedElementPath = resolvedElementPath;
   }
 
   private String initXMLNodeVariable(MethodCallExpr methodCallExpr) {
     var firstArg = methodCallExpr.getArgument(0);
     if (firstArg.isMethodCallExpr()) return initXMLNodeVariable(firstArg.asMethodCallExpr());
-    return methodCallExpr.getArgument(0).toString();
+    if (firstArg.isNameExpr()) return firstArg.asNameExpr().getNameAsString();
+    return firstArg.toString();
   }
 
-  private boolean initRequired(String parseFunc) {
-    return !parseFunc.endsWith("Optional");
+  // The last argument of getAttributeValue(node, [index,] NAME), e.g. CUSTOMER_ID or ForecastTypes.START_DATE.
+  private String initAttributeConstant(MethodCallExpr methodCallExpr) {
+    if (methodCallExpr.getArguments().isEmpty()) return null;
+    var firstArg = methodCallExpr.getArgument(0);
+    if (!firstArg.isMethodCallExpr()) return null;
+    var call = firstArg.asMethodCallExpr();
+    if (!call.getNameAsString().equals(ParseCallMatcher.GET_ATTRIBUTE_VALUE)) return initAttributeConstant(call);
+    var args = call.getArguments();
+    return args.size() < 2 ? null : ConstantIndex.reference(args.get(args.size() - 1));
   }
 
   @SuppressWarnings("unchecked")
-  private String initType(MethodCallExpr methodCallExpr) {
-    MethodDeclaration decl = methodCallExpr.findAncestor(MethodDeclaration.class).orElseThrow();
-    return decl.getType().asString();
+  private static MethodDeclaration enclosingMethod(MethodCallExpr methodCallExpr) {
+    return methodCallExpr.findAncestor(MethodDeclaration.class).orElseThrow();
+  }
+
+  /**
+   * A copy carrying the literal XML attribute name that {@link #getAttributeConstant()} refers to.
+   */
+  public XMLAttribute withAttributeName(String attributeName) {
+    return new XMLAttribute(methodName, xmlNodeVariable, elementPath, type, parseFunction.getName(), attributeConstant,
+      attributeName, resolvedElementPath);
+  }
+
+  /**
+   * A copy carrying the element path with the literal tag names that {@link #getElementPath()} refers to.
+   */
+  public XMLAttribute withResolvedElementPath(String resolvedElementPath) {
+    return new XMLAttribute(methodName, xmlNodeVariable, elementPath, type, parseFunction.getName(), attributeConstant,
+      attributeName, resolvedElementPath);
+  }
+
+  /**
+   * The method reading the attribute, typically a getter such as getCustBizNodeId.
+   */
+  public String getMethodName() {
+    return methodName;
+  }
+
+  public String getXmlNodeVariable() {
+    return xmlNodeVariable;
+  }
+
+  /**
+   * The element the node variable points to as tag constants, e.g. ORDER/ORDER_HEAD/SUPPLIER, where each step is a
+   * descendant of the one before. A variable bound in several places has all its paths, e.g.
+   * SUPPLIER|ORDER/ORDER_HEAD/SUPPLIER, see {@link ElementPaths#alternatives}. Null if the variable is not bound in the
+   * class.
+   */
+  public String getElementPath() {
+    return elementPath;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * The parse function applied to the attribute value; {@link ParseFunction#isKnown()} is false for names outside
+   * the known taxonomy.
+   */
+  public ParseFunction getParseFunction() {
+    return parseFunction;
+  }
+
+  public boolean isRequired() {
+    return parseFunction.isRequired();
+  }
+
+  public String getAttributeConstant() {
+    return attributeConstant;
+  }
+
+  /**
+   * The resolved XML attribute name, or null if the constant has not been resolved.
+   */
+  public String getAttributeName() {
+    return attributeName;
+  }
+
+  /**
+   * The element path with resolved tag names, e.g. Order/OrderHead/Supplier, or null if not every tag constant has
+   * been resolved.
+   */
+  public String getResolvedElementPath() {
+    return resolvedElementPath;
   }
 
   @Override
@@ -39,7 +159,7 @@ public class XMLAttribute {
     return new StringJoiner(", ", XMLAttribute.class.getSimpleName() + "[", "]")
       .add("xmlNodeVariable='" + xmlNodeVariable + "'")
       .add("type='" + type + "'")
-      .add("required=" + required)
+      .add("required=" + isRequired())
       .toString();
   }
 }
@@ -0,0 +1,74 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessPlanTest {
+  @Test
+  void numbersTheAttributesOfEachNodeVariable() {
+    AccessPlan plan = AccessPlan.of(resolvedSampleAttributes());
+
+    assertEquals(List.of("customerIdNode", "orderHeadNode", "orderLineNode"), new ArrayList<>(plan.nodes().keySet()));
+    List<AccessPlan.Slot> lineSlots = plan.nodes().get("orderLineNode");
+    assertEquals(5, lineSlots.size());
+    for (int i = 0; i < lineSlots.size(); i++) assertEquals(i, lineSlots.get(i).getIndex());
+    assertEquals(-1, plan.slot("orderHeadNode", "QTY"));
+
+    AccessPlan.Slot qty = lineSlots.get(plan.slot("orderLineNode", "QTY"));
+    assertEquals("qty", qty.getName());
+    assertEquals(List.of("getQty"), qty.getMethods());
+    assertTrue(qty.isRequired());
+    assertFalse(lineSlots.get(plan.slot("orderLineNode", "ITEM_NO")).isRequired());
+  }
+
+  @Test
+  void sharesASlotBetweenMethodsReadingTheSameAttribute() {
+    String source = Sources.lines(
+      "class P {",
+      "  String getA() throws Exception { return parseStringRequired(getAttributeValue(node, ID), ID); }",
+      "  String getB() throws Exception { return parseStringOptional(getAttributeValue(node, ID), ID); }",
+      "  String getC() throws Exception { return parseStringOptional(getAttributeValue(node, NAME), NAME); }",
+      "}");
+    List<XMLAttribute> attributes = new ArrayList<>();
+    Sources.parse(source).accept(new AttributeVisitor(), attributes::add);
+    AccessPlan plan = AccessPlan.of(attributes);
+
+    List<AccessPlan.Slot> slots = plan.nodes().get("node");
+    assertEquals(2, slots.size());
+    AccessPlan.Slot id = slots.get(plan.slot("node", "ID"));
+    assertEquals(List.of("getA", "getB"), id.getMethods());
+    assertTrue(id.isRequired());
+    assertEquals(null, id.getName());
+  }
+
+  @Test
+  void planSinkWritesOnePlanPerSource() {
+    StringWriter out = new StringWriter();
+    try (PlanSink sink = new PlanSink(out)) {
+      sink.source(Paths.get("A.java"));
+      resolvedSampleAttributes().forEach(sink::attribute);
+      sink.source(Paths.get("B.java"));
+    }
+    String[] lines = out.toString().split(System.lineSeparator());
+    assertEquals("A.java", lines[0]);
+    assertTrue(out.toString().contains("customerIdNode[1] = {\"id\"}"), out.toString());
+    assertTrue(out.toString().contains("\tQTY\trequired\tgetQty"), out.toString());
+    assertEquals("B.java", lines[lines.length - 1]);
+  }
+
+  private static List<XMLAttribute> resolvedSampleAttributes() {
+    ConstantIndex index = new ConstantIndex();
+    index.add(Sources.parse(SampleParsers.source("OrdersTypes")));
+    List<XMLAttribute> attributes = new ArrayList<>();
+    SampleParsers.model().getAttributes().forEach(attribute -> attributes.add(index.resolve(attribute)));
+    return attributes;
+  }
+}
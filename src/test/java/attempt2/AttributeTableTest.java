@@ -0,0 +1,104 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttributeTableTest {
+  private static List<XMLAttribute> attributes() {
+    List<XMLAttribute> attributes = new ArrayList<>();
+    for (XMLAttribute attribute : AttributeExtractor.extract(Sources.bundledUnit())) {
+      attributes.add(attribute.withAttributeName("name").withResolvedElementPath("Order/OrderHead"));
+    }
+    attributes.add(new XMLAttribute("getX", "node", null, "int", "parseIntRequired", null, null, null));
+    return attributes;
+  }
+
+  private static AttributeTable table(List<XMLAttribute> attributes) {
+    Map<String, List<XMLAttribute>> bySource = new LinkedHashMap<>();
+    bySource.put("A.java", attributes.subList(0, 100));
+    bySource.put("B.java", attributes.subList(100, attributes.size()));
+    return AttributeTable.of(bySource);
+  }
+
+  @Test
+  void rowsReadBackAsAdded() {
+    List<XMLAttribute> attributes = attributes();
+    AttributeTable table = table(attributes);
+    assertEquals(attributes.size(), table.size());
+    AttributeTable.Row row = table.cursor();
+    for (int i = 0; i < table.size(); i++) {
+      assertSame(row, row.at(i));
+      assertEquals(Sources.fields(attributes.get(i)), Sources.fields(row.toAttribute()));
+      assertEquals(attributes.get(i).isRequired(), row.isRequired());
+      assertEquals(attributes.get(i).getParseFunction().getName(), row.getParseFunction().getName());
+      assertEquals(i < 100 ? "A.java" : "B.java", row.getSource());
+    }
+    assertEquals(Sources.fields(attributes), Sources.fields(table.attributes(0, table.size())));
+    List<String> iterated = new ArrayList<>();
+    table.forEach(r -> iterated.add(Sources.fields(r.toAttribute())));
+    assertEquals(Sources.fields(attributes), iterated);
+  }
+
+  @Test
+  void requiredFlagsAreABitSet() {
+    AttributeTable table = new AttributeTable();
+    table.add("A.java", new XMLAttribute("getA", "node", null, "String", "parseStringRequired", "A", null, null));
+    table.add("A.java", new XMLAttribute("getB", "node", null, "String", "parseStringOptional", "B", null, null));
+    AttributeTable.Row row = table.cursor();
+    assertTrue(row.at(0).isRequired());
+    assertFalse(row.at(1).isRequired());
+  }
+
+  @Test
+  void equalStringsShareOneInstance() {
+    AttributeTable table = new AttributeTable();
+    table.add("A.java", new XMLAttribute("getA", new String("node"), null, new String("String"),
+      "parseStringRequired", "A", null, null));
+    table.add("A.java", new XMLAttribute("getB", new String("node"), null, new String("String"),
+      "parseStringRequired", "B", null, null));
+    AttributeTable.Row first = table.cursor().at(0);
+    AttributeTable.Row second = table.cursor().at(1);
+    assertSame(first.getXmlNodeVariable(), second.getXmlNodeVariable());
+    assertSame(first.getType(), second.getType());
+  }
+
+  @Test
+  void writtenTableReadsBackAsWritten() throws IOException {
+    List<XMLAttribute> attributes = attributes();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    table(attributes).write(new DataOutputStream(bytes));
+    byte[] written = bytes.toByteArray();
+
+    AttributeTable read = AttributeTable.read(new DataInputStream(new ByteArrayInputStream(written)), written.length);
+    assertEquals(Sources.fields(attributes), Sources.fields(read.attributes(0, read.size())));
+    assertEquals("B.java", read.cursor().at(read.size() - 1).getSource());
+
+    byte[] corrupt = Arrays.copyOf(written, written.length);
+    Arrays.fill(corrupt, 0, 4, (byte) 0x7f);
+    assertThrows(IOException.class,
+      () -> AttributeTable.read(new DataInputStream(new ByteArrayInputStream(corrupt)), corrupt.length));
+  }
+
+  @Test
+  void rejectsRowsOutOfRange() {
+    AttributeTable table = new AttributeTable();
+    assertThrows(IndexOutOfBoundsException.class, () -> table.cursor().at(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> table.attributes(0, 1));
+  }
+}
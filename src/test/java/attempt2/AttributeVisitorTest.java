@@ -0,0 +1,103 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttributeVisitorTest {
+  // What the visitor must find: every matching call in a method, with the method looked up from the call.
+  @SuppressWarnings("unchecked")
+  private static List<String> perCall(CompilationUnit cu) {
+    List<String> attributes = new ArrayList<>();
+    for (MethodCallExpr call : cu.findAll(MethodCallExpr.class)) {
+      if (ParseCallMatcher.matches(call) && call.findAncestor(MethodDeclaration.class).isPresent()) {
+        attributes.add(withoutPath(new XMLAttribute(call)));
+      }
+    }
+    return attributes;
+  }
+
+  private static List<String> visited(CompilationUnit cu) {
+    List<String> attributes = new ArrayList<>();
+    AttributeExtractor.extract(cu, attribute -> attributes.add(withoutPath(attribute)));
+    return attributes;
+  }
+
+  private static String withoutPath(XMLAttribute attribute) {
+    return String.join(" ", attribute.getMethodName(), attribute.getType(), attribute.getXmlNodeVariable(),
+      attribute.getParseFunction().getName(), String.valueOf(attribute.getAttributeConstant()));
+  }
+
+  // The traversal orders differ within a method, e.g. for calls in the scope of another call.
+  @Test
+  void bundledParserMatchesPerCallExtraction() {
+    CompilationUnit cu = Sources.bundledUnit();
+    List<String> visited = visited(cu);
+    assertFalse(visited.isEmpty());
+    List<String> expected = perCall(cu);
+    Collections.sort(expected);
+    Collections.sort(visited);
+    assertEquals(expected, visited);
+  }
+
+  @Test
+  void callsOutsideMethodsAreSkipped() {
+    CompilationUnit cu = Sources.parse(Sources.lines(
+      "class A {",
+      "  String id = parseStringRequired(getAttributeValue(node, ID), ID);",
+      "  A() throws Exception {",
+      "    parseStringOptional(getAttributeValue(node, NAME), NAME);",
+      "  }",
+      "  int getQty() throws Exception {",
+      "    return parseIntRequired(getAttributeValue(lineNode, QTY), QTY);",
+      "  }",
+      "}"));
+    assertEquals(List.of("getQty int lineNode parseIntRequired QTY"), visited(cu));
+  }
+
+  @Test
+  void nestedMethodsOwnTheirCalls() {
+    CompilationUnit cu = Sources.parse(Sources.lines(
+      "class A {",
+      "  Runnable getTask() throws Exception {",
+      "    String outer = parseStringRequired(getAttributeValue(node, OUTER), OUTER);",
+      "    return new Runnable() {",
+      "      public void run() {",
+      "        parseStringOptional(getAttributeValue(node, INNER), INNER);",
+      "      }",
+      "    };",
+      "  }",
+      "}"));
+    List<String> visited = visited(cu);
+    assertEquals(List.of("getTask Runnable node parseStringRequired OUTER", "run void node parseStringOptional INNER"),
+      visited);
+    assertEquals(perCall(cu), visited);
+  }
+
+  @Test
+  void elementPathsComeFromTheEnclosingClass() {
+    CompilationUnit cu = Sources.parse(Sources.lines(
+      "class A {",
+      "  Node headNode;",
+      "  A(Document doc) {",
+      "    headNode = doc.getElementsByTagName(HEAD).item(0);",
+      "  }",
+      "  String getId() throws Exception {",
+      "    return parseStringRequired(getAttributeValue(headNode, ID), ID);",
+      "  }",
+      "}"));
+    List<XMLAttribute> attributes = AttributeExtractor.extract(cu);
+    assertEquals(1, attributes.size());
+    assertEquals("HEAD", attributes.get(0).getElementPath());
+    assertTrue(attributes.get(0).isRequired());
+  }
+}
@@ -0,0 +1,84 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchExtractionTest {
+  @TempDir
+  Path dir;
+
+  private Path write(String name, String source) throws IOException {
+    Path path = dir.resolve(name);
+    Files.createDirectories(path.getParent());
+    return Files.writeString(path, source, StandardCharsets.ISO_8859_1);
+  }
+
+  @Test
+  void collectsJavaFilesOfDirectoryInOrder() throws IOException {
+    Path b = write("b/B.java", Sources.parser("B", "node", "Name"));
+    Path a = write("A.java", Sources.parser("A", "node", "Id"));
+    write("notes.txt", "no source");
+    assertEquals(List.of(a, b), BatchExtraction.collectSources(dir.toString()));
+  }
+
+  @Test
+  void collectsGlobMatches() throws IOException {
+    Path parser = write("x/OrdersParserXML.java", Sources.parser("OrdersParserXML", "node", "Id"));
+    write("x/Helper.java", "class Helper {}");
+    assertEquals(List.of(parser), BatchExtraction.collectSources(dir + "/**/*ParserXML.java"));
+  }
+
+  @Test
+  void collectsSingleFile() throws IOException {
+    Path a = write("A.java", Sources.parser("A", "node", "Id"));
+    assertEquals(List.of(a), BatchExtraction.collectSources(a.toString()));
+  }
+
+  @Test
+  void parallelRunMatchesSequentialExtractionOrderedByPath() throws IOException {
+    List<Path> sources = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      sources.add(write("P" + i + ".java", Sources.parser("P" + i, "node" + i, "Id", "Name", "Code" + i)));
+    }
+    SortedMap<Path, List<XMLAttribute>> result = new BatchExtraction(4).run(sources);
+    assertEquals(new TreeSet<>(sources), result.keySet());
+    for (Path source : sources) {
+      List<String> expected = new ArrayList<>();
+      AttributeExtractor.extract(Sources.parse(Files.readString(source, StandardCharsets.ISO_8859_1)))
+        .forEach(attribute -> expected.add(Sources.fields(attribute)));
+      List<String> actual = new ArrayList<>();
+      result.get(source).forEach(attribute -> actual.add(Sources.fields(attribute)));
+      assertEquals(expected, actual, source.toString());
+    }
+  }
+
+  @Test
+  void failuresLeaveOtherSourcesExtracted() throws IOException {
+    Path good = write("Good.java", Sources.parser("Good", "node", "Id"));
+    Path broken = write("Broken.java", "class Broken { String get() { return parseStringRequired(getAttributeValue(");
+    Map<Path, RuntimeException> failures = new LinkedHashMap<>();
+    SortedMap<Path, List<XMLAttribute>> result = new BatchExtraction(2).run(List.of(broken, good), failures::put);
+    assertEquals(List.of(good), new ArrayList<>(result.keySet()));
+    assertEquals(List.of(broken), new ArrayList<>(failures.keySet()));
+    assertThrows(RuntimeException.class, () -> new BatchExtraction(2).run(List.of(broken, good)));
+  }
+
+  @Test
+  void rejectsNonPositiveThreads() {
+    assertThrows(IllegalArgumentException.class, () -> new BatchExtraction(0));
+  }
+}
@@ -0,0 +1,76 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandLineTest {
+  private static String error(String... args) {
+    return assertThrows(IllegalArgumentException.class, () -> CommandLine.parse(args)).getMessage();
+  }
+
+  @Test
+  void withoutInputsTheBundledParserIsUsed() {
+    CommandLine commandLine = CommandLine.parse("--format", "tsv");
+    assertEquals(CommandLine.Mode.BUNDLED, commandLine.mode);
+    assertEquals(OutputFormat.TSV, commandLine.format);
+    assertTrue(commandLine.inputs.isEmpty());
+  }
+
+  @Test
+  void parsesExtractionOptions() {
+    CommandLine commandLine = CommandLine.parse("--threads", "3", "--cache", "c.bin", "--charset", "UTF-8",
+      "--output", "out.txt", "src", "lib/**/*.java");
+    assertEquals(CommandLine.Mode.EXTRACT, commandLine.mode);
+    assertEquals(List.of("src", "lib/**/*.java"), commandLine.inputs);
+    assertEquals(3, commandLine.threads);
+    assertEquals(Paths.get("c.bin"), commandLine.cache);
+    assertEquals(StandardCharsets.UTF_8, commandLine.charset);
+    assertEquals(Paths.get("out.txt"), commandLine.output);
+  }
+
+  @Test
+  void picksTheGivenMode() {
+    assertEquals(CommandLine.Mode.WATCH, CommandLine.parse("--watch", "src").mode);
+    assertEquals(CommandLine.Mode.GENERATE_STAX, CommandLine.parse("--generate-stax", "out", "src").mode);
+    assertEquals(CommandLine.Mode.GENERATE_RECORDS, CommandLine.parse("--generate-records", "out", "src").mode);
+    assertEquals(CommandLine.Mode.GENERATE_SNAPSHOT, CommandLine.parse("--generate-snapshot", "out", "src").mode);
+    assertEquals(CommandLine.Mode.GENERATE_MEMO, CommandLine.parse("--generate-memo", "out", "src").mode);
+    assertEquals(CommandLine.Mode.ANALYZE, CommandLine.parse("--analyze", "scans", "src").mode);
+    assertEquals(CommandLine.Mode.CAPTURE, CommandLine.parse("--capture", "a.xml", "src").mode);
+  }
+
+  @Test
+  void allowsOneModeOnly() {
+    assertEquals("--watch cannot be combined with --generate-stax", error("--watch", "--generate-stax", "out", "src"));
+  }
+
+  @Test
+  void rejectsOptionsTheModeDoesNotUse() {
+    assertEquals("--format cannot be combined with --generate-stax",
+      error("--generate-stax", "out", "--format", "tsv", "src"));
+    assertEquals("--resolve-constants cannot be combined with --watch", error("--watch", "--resolve-constants", "src"));
+    assertEquals("--cache needs input sources", error("--cache", "c.bin"));
+    assertEquals("--watch needs input sources", error("--watch"));
+  }
+
+  @Test
+  void rejectsInvalidValues() {
+    assertEquals("--threads must be a positive number: 0", error("--threads", "0", "src"));
+    assertEquals("--threads must be a positive number: x", error("--threads", "x", "src"));
+    assertEquals("unknown charset: nope", error("--charset", "nope", "src"));
+    assertEquals("--output needs a value", error("src", "--output"));
+    assertEquals("unknown option: --fast", error("--fast", "src"));
+  }
+
+  @Test
+  void helpNeedsNoMode() {
+    assertTrue(CommandLine.parse("--help").help);
+  }
+}
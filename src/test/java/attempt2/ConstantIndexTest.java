@@ -0,0 +1,95 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConstantIndexTest {
+  private static ConstantIndex index(String... sources) {
+    ConstantIndex index = new ConstantIndex();
+    for (String source : sources) index.add(Sources.parse(source));
+    return index;
+  }
+
+  private static final String ORDERS = Sources.lines(
+    "package se.example;",
+    "interface OrdersTypes {",
+    "  String ORDER = \"Order\";",
+    "  String ORDER_HEAD = \"Order\" + \"Head\";",
+    "  String START_DATE = \"startDate\";",
+    "}");
+  private static final String FORECAST = Sources.lines(
+    "package se.example.xml;",
+    "class ForecastTypes {",
+    "  static final String START_DATE = \"forecastStart\";",
+    "  static final String CUMULATED = (\"Cumu\" + \"lated\");",
+    "  static String NOT_FINAL = \"x\";",
+    "  static final String COMPUTED = String.valueOf(1);",
+    "  static final int COUNT = 1;",
+    "}");
+
+  @Test
+  void resolvesLiteralsAndConcatenations() {
+    ConstantIndex index = index(ORDERS, FORECAST);
+    assertEquals("Order", index.resolve("ORDER"));
+    assertEquals("OrderHead", index.resolve("ORDER_HEAD"));
+    assertEquals("Cumulated", index.resolve("CUMULATED"));
+    assertEquals("id", index.resolve("\"id\""));
+  }
+
+  @Test
+  void skipsWhatIsNotAStringConstant() {
+    ConstantIndex index = index(FORECAST);
+    assertNull(index.resolve("NOT_FINAL"));
+    assertNull(index.resolve("COMPUTED"));
+    assertNull(index.resolve("COUNT"));
+    assertNull(index.resolve("UNKNOWN"));
+    assertNull(index.resolve((String) null));
+  }
+
+  @Test
+  void ambiguousSimpleNameOnlyResolvesQualified() {
+    ConstantIndex index = index(ORDERS, FORECAST);
+    assertNull(index.resolve("START_DATE"));
+    assertEquals("startDate", index.resolve("OrdersTypes.START_DATE"));
+    assertEquals("forecastStart", index.resolve("ForecastTypes.START_DATE"));
+    assertEquals("forecastStart", index.resolve("se.example.xml.ForecastTypes.START_DATE"));
+    assertEquals("forecastStart", index.resolve("other.pkg.ForecastTypes.START_DATE"));
+  }
+
+  @Test
+  void sameValueInSeveralTypesStaysResolvable() {
+    ConstantIndex index = index(ORDERS, "class Copy { static final String ORDER = \"Order\"; }");
+    assertEquals("Order", index.resolve("ORDER"));
+  }
+
+  @Test
+  void mergedIndexesKeepTheAmbiguity() {
+    ConstantIndex merged = ConstantIndex.of(List.of(index(ORDERS), index(FORECAST)));
+    assertNull(merged.resolve("START_DATE"));
+    assertEquals("startDate", merged.resolve("OrdersTypes.START_DATE"));
+    assertEquals(index(ORDERS, FORECAST).size(), merged.size());
+  }
+
+  @Test
+  void resolvesEveryAlternativeOfAPath() {
+    ConstantIndex index = index(ORDERS, FORECAST);
+    assertEquals("Order/OrderHead", index.resolvePath("ORDER/ORDER_HEAD"));
+    assertEquals("Cumulated|Order/Cumulated", index.resolvePath("ForecastTypes.CUMULATED|ORDER/CUMULATED"));
+    assertNull(index.resolvePath("ORDER/START_DATE"));
+    assertNull(index.resolvePath("ORDER|ORDER/UNKNOWN"));
+  }
+
+  @Test
+  void resolvesAttributeNameAndPath() {
+    ConstantIndex index = index(ORDERS, FORECAST);
+    XMLAttribute attribute = new XMLAttribute("getStart", "headNode", "ORDER/ORDER_HEAD", "Date",
+      "parseDateOptional", "OrdersTypes.START_DATE", null, null);
+    XMLAttribute resolved = index.resolve(attribute);
+    assertEquals("startDate", resolved.getAttributeName());
+    assertEquals("Order/OrderHead", resolved.getResolvedElementPath());
+  }
+}
@@ -0,0 +1,91 @@
+package attempt2;
+
+import com.github.javaparser.ast.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElementPathsTest {
+  @Test
+  void bindsListsNodesAndItems() {
+    NodeBindings bindings = NodeBindings.of(sampleType());
+
+    NodeBindings.Binding list = bindings.get("orderLineNodeList").get(0);
+    assertEquals(NodeBindings.Kind.LIST, list.getKind());
+    assertEquals("ORDER_LINE", list.getTagConstant());
+    assertEquals("order", list.getParent());
+    assertEquals("nextOrder", list.getMethodName());
+    NodeBindings.Binding node = bindings.get("customerIdNode").get(0);
+    assertEquals(NodeBindings.Kind.NODE, node.getKind());
+    assertEquals("orderHeadNode", node.getParent());
+    NodeBindings.Binding item = bindings.get("orderLineNode").get(0);
+    assertEquals(NodeBindings.Kind.ITEM, item.getKind());
+    assertNull(item.getTagConstant());
+    assertEquals("orderLineNodeList", item.getParent());
+
+    assertEquals("ORDER_LINE", bindings.tag("orderLineNode"));
+    assertTrue(bindings.get("unbound").isEmpty());
+  }
+
+  @Test
+  void findsTheCursorsOfTheNextMethods() {
+    NodeBindings bindings = NodeBindings.of(sampleType());
+
+    assertEquals(Map.of("orderNodeList", "nextOrder", "orderLineNodeList", "nextOrderLine"), bindings.cursors());
+    assertEquals("orderLineNodeList", bindings.cursor("orderLineNode"));
+    assertEquals("orderNodeList", bindings.enclosingCursor("orderLineNodeList"));
+    assertEquals("orderNodeList", bindings.cursor("customerIdNode"));
+  }
+
+  @Test
+  void followsBindingsBackToTheDocument() {
+    ElementPaths paths = ElementPaths.of(sampleType());
+
+    assertEquals("ORDER/ORDER_LINE", paths.path("orderLineNode"));
+    assertEquals("ORDER/ORDER_HEAD/CUSTOMER", paths.path("customerIdNode"));
+    assertEquals(List.of("ORDER"), paths.paths("orderNodeList"));
+    assertNull(paths.path("unbound"));
+    assertTrue(paths.paths("unbound").isEmpty());
+  }
+
+  @Test
+  void keepsEveryPathOfAVariableBoundMoreThanOnce() {
+    ElementPaths paths = ElementPaths.of(Sources.bundledUnit().getType(0));
+
+    String customer = paths.path("customerIdNode");
+    assertEquals("CUSTOMER|ORDER/ORDER_HEAD/CUSTOMER", customer);
+    assertEquals(List.of("CUSTOMER", "ORDER/ORDER_HEAD/CUSTOMER"), ElementPaths.alternatives(customer));
+    assertEquals(List.of("ORDER/ORDER_LINE"), ElementPaths.alternatives("ORDER/ORDER_LINE"));
+  }
+
+  @Test
+  void cutsBindingCyclesWithoutCachingTheirTruncatedPaths() {
+    Node type = Sources.parse(Sources.lines(
+      "class P {",
+      "  void next() {",
+      "    a = ((Element) b).getElementsByTagName(A).item(0);",
+      "    b = ((Element) a).getElementsByTagName(B).item(0);",
+      "    b = doc.getElementsByTagName(B).item(0);",
+      "    c = ((Element) a).getElementsByTagName(C).item(0);",
+      "    d = doc.getElementsByTagName(D).item(0);",
+      "    e = ((Element) d).getElementsByTagName(E).item(0);",
+      "  }",
+      "}")).getType(0);
+    ElementPaths paths = ElementPaths.of(type);
+
+    assertEquals(List.of("B/A/C"), paths.paths("c"));
+    // Resolving c cut the cycle at a, leaving b with only B; b is resolved again rather than taken from the cache.
+    assertEquals(List.of("A/B", "B"), paths.paths("b"));
+    assertEquals(ElementPaths.of(type).paths("b"), paths.paths("b"));
+    assertEquals("D/E", paths.path("e"));
+  }
+
+  private static Node sampleType() {
+    return Sources.parse(SampleParsers.source(SampleParsers.PARSER)).getType(0);
+  }
+}
@@ -0,0 +1,80 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExceptionFlowDetectorTest {
+  @Test
+  void classifiesHowGettersHandleAMissingField() {
+    CompilationUnit cu = Sources.parse(SampleParsers.source(SampleParsers.PARSER));
+
+    assertEquals(ExceptionFlowDetector.Pattern.OPTIONAL_SWALLOWED, pattern(cu, "getNote"));
+    assertEquals(ExceptionFlowDetector.Pattern.OPTIONAL_DEFAULT, pattern(cu, "getRush"));
+    assertEquals(ExceptionFlowDetector.Pattern.REQUIRED_TO_OPTIONAL, pattern(cu, "getPrice"));
+    assertNull(pattern(cu, "getCustomerId"));
+    assertNull(pattern(cu, "getItemNo"));
+  }
+
+  @Test
+  void classifiesOptionalParseCallsByTheirReplacement() {
+    List<Object> report = ExceptionFlowDetector.detect(Sources.parse(SampleParsers.source(SampleParsers.PARSER)));
+
+    ExceptionFlowDetector.ClassSummary summary = (ExceptionFlowDetector.ClassSummary) report.get(0);
+    assertEquals(SampleParsers.PARSER, summary.getClassName());
+    assertEquals(Map.of(ExceptionFlowDetector.Replacement.SENTINEL, 1, ExceptionFlowDetector.Replacement.PROPAGATED, 1,
+      ExceptionFlowDetector.Replacement.OR_ELSE, 1), summary.getOptionalCalls());
+    List<String> calls = new ArrayList<>();
+    for (Object finding : report) {
+      if (finding instanceof ExceptionFlowDetector.OptionalCall) calls.add(finding.toString());
+    }
+    assertEquals(List.of(
+      "getNote\tparseStringOptional\tNOTE\tSENTINEL",
+      "getItemNo\tparseStringOptional\tITEM_NO\tPROPAGATED",
+      "getRush\tparsebooleanOptional\tRUSH\tOR_ELSE"), calls);
+  }
+
+  @Test
+  void findsNullPointerExceptionsCaughtAroundElementLookups() {
+    List<Object> report = ExceptionFlowDetector.detect(Sources.parse(Sources.lines(
+      "class P {",
+      "  void next() {",
+      "    try {",
+      "      headNode = ((Element) orderNode).getElementsByTagName(ORDER_HEAD).item(0);",
+      "    } catch (NullPointerException e) {",
+      "      headNode = null;",
+      "    }",
+      "    try {",
+      "      count = list.getLength();",
+      "    } catch (NullPointerException | IllegalStateException e) {",
+      "    }",
+      "  }",
+      "}")));
+
+    ExceptionFlowDetector.ClassSummary summary = (ExceptionFlowDetector.ClassSummary) report.get(0);
+    assertEquals(Map.of(ExceptionFlowDetector.Pattern.NPE_NODE_LOOKUP, 1, ExceptionFlowDetector.Pattern.NPE_OTHER, 1),
+      summary.getCatchSites());
+    ExceptionFlowDetector.CatchSite lookup = (ExceptionFlowDetector.CatchSite) report.get(1);
+    assertEquals(List.of("ORDER_HEAD"), lookup.getGuarded());
+    ExceptionFlowDetector.CatchSite other = (ExceptionFlowDetector.CatchSite) report.get(2);
+    assertEquals("NullPointerException|IllegalStateException", other.getCaught());
+  }
+
+  @Test
+  void reportsNothingForAClassWithoutExceptionFlow() {
+    assertTrue(ExceptionFlowDetector.detect(Sources.parse(Sources.parser("P", "node", "Id"))).isEmpty());
+  }
+
+  private static ExceptionFlowDetector.Pattern pattern(CompilationUnit cu, String method) {
+    return ExceptionFlowDetector.missingFieldPattern(cu.findFirst(MethodDeclaration.class,
+      declaration -> declaration.getNameAsString().equals(method)).orElseThrow());
+  }
+}
@@ -0,0 +1,152 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExtractionCacheTest {
+  @TempDir
+  Path dir;
+
+  private Path source(String name, String content) throws IOException {
+    return Files.writeString(dir.resolve(name), content, StandardCharsets.ISO_8859_1);
+  }
+
+  private static byte[] hash(Path source) throws IOException {
+    return ExtractionCache.hash(StandardCharsets.ISO_8859_1, Files.readAllBytes(source));
+  }
+
+  private static List<XMLAttribute> attributes() {
+    return List.of(
+      new XMLAttribute("getId", "headNode", "ORDER|ORDER/ORDER_HEAD", "String", "parseStringRequired", "ID", null,
+        null),
+      new XMLAttribute("getQty", "lineNode", null, "int", "parseIntOptional", "Types.QTY", null, null),
+      new XMLAttribute("getNote", "node", null, "String", "parseStringOptional", null, null, null));
+  }
+
+  @Test
+  void roundTripsAttributes() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    Path source = source("A.java", "class A {}");
+    ExtractionCache cache = ExtractionCache.load(file);
+    cache.put(source, hash(source), attributes());
+    cache.save();
+
+    List<XMLAttribute> loaded = ExtractionCache.load(file).get(source, hash(source));
+    assertNotNull(loaded);
+    assertEquals(Sources.fields(attributes()), Sources.fields(loaded));
+  }
+
+  @Test
+  void changedContentMisses() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    Path source = source("A.java", "class A {}");
+    ExtractionCache cache = ExtractionCache.load(file);
+    cache.put(source, hash(source), attributes());
+    cache.save();
+
+    source("A.java", "class A { }");
+    assertNull(ExtractionCache.load(file).get(source, hash(source)));
+  }
+
+  @Test
+  void deletedSourcesAreDroppedOnSave() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    Path kept = source("A.java", "class A {}");
+    Path deleted = source("B.java", "class B {}");
+    byte[] deletedHash = hash(deleted);
+    ExtractionCache cache = ExtractionCache.load(file);
+    cache.put(kept, hash(kept), attributes());
+    cache.put(deleted, deletedHash, attributes());
+    Files.delete(deleted);
+    cache.save();
+
+    ExtractionCache loaded = ExtractionCache.load(file);
+    assertNotNull(loaded.get(kept, hash(kept)));
+    assertNull(loaded.get(deleted, deletedHash));
+  }
+
+  @Test
+  void otherToolVersionIsIgnored() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    Path source = source("A.java", "class A {}");
+    ExtractionCache cache = ExtractionCache.load(file);
+    cache.put(source, hash(source), attributes());
+    cache.save();
+
+    // The header is the magic number and the version as modified UTF-8 with a two byte length.
+    byte[] content = Files.readAllBytes(file);
+    byte[] version = ExtractionCache.TOOL_VERSION.getBytes(StandardCharsets.UTF_8);
+    assertEquals(version.length, ((content[4] & 0xff) << 8) | (content[5] & 0xff));
+    Arrays.fill(content, 6, 6 + version.length, (byte) '~');
+    Files.write(file, content);
+    assertNull(ExtractionCache.load(file).get(source, hash(source)));
+  }
+
+  @Test
+  void truncatedOrCorruptFileIsAnEmptyCache() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    Path source = source("A.java", "class A {}");
+    ExtractionCache cache = ExtractionCache.load(file);
+    cache.put(source, hash(source), attributes());
+    cache.save();
+    byte[] content = Files.readAllBytes(file);
+
+    for (int length = 0; length < content.length; length += 7) {
+      Files.write(file, Arrays.copyOf(content, length));
+      assertNull(ExtractionCache.load(file).get(source, hash(source)), "truncated to " + length);
+    }
+    byte[] corrupt = content.clone();
+    Arrays.fill(corrupt, 7, corrupt.length, (byte) 0x7f);
+    Files.write(file, corrupt);
+    assertNull(ExtractionCache.load(file).get(source, hash(source)));
+
+    ExtractionCache rebuilt = ExtractionCache.load(file);
+    rebuilt.put(source, hash(source), attributes());
+    rebuilt.save();
+    assertNotNull(ExtractionCache.load(file).get(source, hash(source)));
+  }
+
+  @Test
+  void otherCharsetMisses() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    Path source = source("A.java", "class A {}");
+    byte[] content = Files.readAllBytes(source);
+    ExtractionCache cache = ExtractionCache.load(file);
+    cache.put(source, ExtractionCache.hash(StandardCharsets.ISO_8859_1, content), attributes());
+    cache.save();
+
+    ExtractionCache loaded = ExtractionCache.load(file);
+    assertNotNull(loaded.get(source, ExtractionCache.hash(StandardCharsets.ISO_8859_1, content)));
+    assertNull(loaded.get(source, ExtractionCache.hash(StandardCharsets.UTF_8, content)));
+  }
+
+  @Test
+  void missingFileIsAnEmptyCache() throws IOException {
+    Path source = source("A.java", "class A {}");
+    assertNull(ExtractionCache.load(dir.resolve("absent.bin")).get(source, hash(source)));
+  }
+
+  @Test
+  void batchExtractionReusesCachedResults() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    Path source = source("A.java", Sources.parser("A", "node", "Id"));
+    BatchExtraction first = new BatchExtraction(1, ExtractionCache.load(file));
+    List<String> extracted = Sources.fields(first.run(List.of(source)).get(source));
+    first.saveCache();
+
+    ExtractionCache cache = ExtractionCache.load(file);
+    assertEquals(extracted, Sources.fields(cache.get(source, hash(source))));
+    assertEquals(extracted, Sources.fields(new BatchExtraction(1, cache).run(List.of(source)).get(source)));
+  }
+}
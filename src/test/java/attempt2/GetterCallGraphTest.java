@@ -0,0 +1,69 @@
+package attempt2;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GetterCallGraphTest {
+  @Test
+  void findsGettersOtherGettersCall() {
+    GetterCallGraph graph = SampleParsers.model().getCallGraph();
+
+    assertEquals(List.of("getItemNo", "getQty"), graph.getCalls().get("getLabel"));
+    assertEquals(Set.of("nextOrder", "nextOrderLine"), graph.getCursorMethods());
+    List<GetterCallGraph.Candidate> candidates = graph.getCandidates();
+    assertEquals(List.of("getQty", "getItemNo"), names(candidates));
+    GetterCallGraph.Candidate qty = candidates.get(0);
+    assertEquals(List.of("getLabel", "isBig"), qty.getCallers());
+    assertEquals(1, qty.getAttributeReads());
+    assertEquals("nextOrderLine", qty.getCursorMethod());
+    assertEquals(2, qty.getRedundantWork());
+  }
+
+  @Test
+  void leavesOutGettersThatAreNotPureOrCannotBeOverridden() {
+    ClassOrInterfaceDeclaration type = Sources.parse(Sources.lines(
+      "public class P {",
+      "  private Node node;",
+      "  private int reads;",
+      "  private String last;",
+      "  public String getA() throws Exception { reads++; return parseStringRequired(getAttributeValue(node, A), A); }",
+      "  public String getB() throws Exception { return last; }",
+      "  public final String getC() throws Exception { return parseStringRequired(getAttributeValue(node, C), C); }",
+      "  public String getD() throws Exception { return parseStringRequired(getAttributeValue(node, D), D); }",
+      "  public String getE() throws Exception { return getD() + getE2(); }",
+      "  private String getE2() throws Exception { return getD(); }",
+      "  public String getAll() throws Exception {",
+      "    last = getD();",
+      "    return getA() + getB() + getC() + getD();",
+      "  }",
+      "}")).getClassByName("P").orElseThrow();
+    GetterCallGraph graph = GetterCallGraph.of(type, NodeBindings.of(type));
+
+    List<GetterCallGraph.Candidate> candidates = graph.getCandidates();
+    assertEquals(List.of("getD"), names(candidates));
+    assertEquals(List.of("getE", "getE2", "getAll", "getAll"), candidates.get(0).getCallers());
+    assertNull(candidates.get(0).getCursorMethod());
+  }
+
+  @Test
+  void bundledParserMemoizesTheOrderChangeOperation() {
+    List<GetterCallGraph.Candidate> candidates = GetterCallGraph.detect(Sources.bundledUnit());
+
+    assertEquals(List.of("getOrderChangeOperation"), names(candidates));
+    assertEquals(2, candidates.get(0).getCatchClauses());
+    assertEquals("nextOrder", candidates.get(0).getCursorMethod());
+  }
+
+  private static List<String> names(List<GetterCallGraph.Candidate> candidates) {
+    List<String> names = new ArrayList<>();
+    candidates.forEach(candidate -> names.add(candidate.getMethodName()));
+    return names;
+  }
+}
@@ -0,0 +1,56 @@
+package attempt2;
+
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LexicalPrefilterTest {
+  private static boolean mayContain(String source) {
+    return LexicalPrefilter.mayContainAttributes(ByteBuffer.wrap(source.getBytes(StandardCharsets.ISO_8859_1)));
+  }
+
+  @Test
+  void passesEverySourceWithParseCalls() {
+    assertTrue(mayContain(Sources.bundled()));
+    assertTrue(mayContain(Sources.parser("A", "node", "Id")));
+    assertTrue(mayContain("x = parseAnything(getAttributeValue(n, A));"));
+  }
+
+  @Test
+  void rejectsSourcesMissingEitherToken() {
+    assertFalse(mayContain("class A { String a = getAttributeValue(node, ID); }"));
+    assertFalse(mayContain("class A { int a = Integer.parseInt(s); }"));
+    assertFalse(mayContain("class A {}"));
+    assertFalse(mayContain(""));
+    assertFalse(mayContain("getAttributeValu"));
+  }
+
+  @Test
+  void agreesWithTheParserOnSourcesWithoutMatches() {
+    String source = "class A { void a() { getAttributeValue(node, ID); } }";
+    boolean matches = Sources.parse(source).findAll(MethodCallExpr.class).stream().anyMatch(ParseCallMatcher::matches);
+    assertEquals(matches, mayContain(source));
+  }
+
+  @Test
+  void leavesTheBufferPositionAlone() {
+    ByteBuffer content = ByteBuffer.wrap(Sources.bundled().getBytes(StandardCharsets.UTF_8));
+    content.position(3);
+    assertTrue(LexicalPrefilter.mayContainAttributes(content));
+    assertEquals(3, content.position());
+  }
+
+  @Test
+  void scansFromThePositionToTheLimit() {
+    byte[] bytes = "parse getAttributeValue".getBytes(StandardCharsets.US_ASCII);
+    assertTrue(LexicalPrefilter.mayContainAttributes(ByteBuffer.wrap(bytes)));
+    assertFalse(LexicalPrefilter.mayContainAttributes(ByteBuffer.wrap(bytes).position(1)));
+    assertFalse(LexicalPrefilter.mayContainAttributes(ByteBuffer.wrap(bytes).limit(bytes.length - 1)));
+  }
+}
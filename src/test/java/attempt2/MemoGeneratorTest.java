@@ -0,0 +1,90 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoGeneratorTest {
+  @TempDir
+  Path dir;
+
+  @Test
+  void memoReturnsAndThrowsWhatTheDomParserDoes() throws Exception {
+    ClassLoader loader = compile();
+
+    assertEquals(SampleParsers.trace(parser(loader, SampleParsers.PARSER)),
+      SampleParsers.trace(parser(loader, MemoGenerator.className(SampleParsers.model()))));
+  }
+
+  @Test
+  void readsAMemoizedGetterOncePerCursorPosition() throws Exception {
+    ClassLoader loader = compile();
+    Class<?> dom = SampleParsers.load(loader, SampleParsers.PARSER);
+    Object memo = parser(loader, MemoGenerator.className(SampleParsers.model()));
+
+    SampleParsers.call(memo, "nextOrder");
+    SampleParsers.call(memo, "nextOrderLine");
+    dom.getField("qtyReads").setInt(null, 0);
+    assertEquals("a:2", SampleParsers.call(memo, "getLabel"));
+    assertEquals(false, SampleParsers.call(memo, "isBig"));
+    assertEquals(2, SampleParsers.call(memo, "getQty"));
+    assertEquals(1, dom.getField("qtyReads").getInt(null));
+
+    SampleParsers.call(memo, "nextOrderLine");
+    Exception missing = assertThrows(Exception.class, () -> SampleParsers.call(memo, "getQty"));
+    assertEquals("MAComFieldMissingException", missing.getClass().getSimpleName());
+    assertSame(missing, assertThrows(Exception.class, () -> SampleParsers.call(memo, "getLabel")));
+    assertEquals(2, dom.getField("qtyReads").getInt(null));
+
+    SampleParsers.call(memo, "nextOrder");
+    SampleParsers.call(memo, "nextOrderLine");
+    Exception malformed = assertThrows(NumberFormatException.class, () -> SampleParsers.call(memo, "getQty"));
+    assertNotSame(missing, malformed);
+    assertEquals(3, dom.getField("qtyReads").getInt(null));
+  }
+
+  @Test
+  void overridesOnlyTheCandidatesAndTheCursorMethods() {
+    String source = MemoGenerator.generate(SampleParsers.model());
+
+    assertTrue(source.contains("public class SampleParserMemo extends SampleParser {"), source);
+    List<String> overridden = List.of("int getQty()", "String getItemNo()", "boolean nextOrder()",
+      "boolean nextOrderLine()");
+    for (String method : overridden) {
+      assertTrue(source.contains("public " + method), method);
+    }
+    assertEquals(4, source.split("@Override").length - 1);
+  }
+
+  @Test
+  void sharedEmitterNamesAndDeclarations() {
+    assertEquals("GET_ORDER_CHANGE_OPERATION", GeneratedCode.constantName("getOrderChangeOperation"));
+    assertEquals("Integer", GeneratedCode.boxed("int"));
+    assertEquals("Character", GeneratedCode.boxed("char"));
+    assertEquals("Double", GeneratedCode.boxed("double"));
+    assertEquals("Date", GeneratedCode.boxed("Date"));
+    assertEquals("", GeneratedCode.throwsClause(Set.of()));
+    assertEquals(" throws MAException, IOException", GeneratedCode.throwsClause(List.of("MAException", "IOException")));
+    assertEquals("if (failure != null) PMemo.<RuntimeException>rethrow(failure);",
+      GeneratedCode.rethrowIfFailed("PMemo", "failure"));
+  }
+
+  private ClassLoader compile() throws Exception {
+    ParserClassModel model = SampleParsers.model();
+    return SampleParsers.compile(dir, MemoGenerator.className(model), MemoGenerator.generate(model));
+  }
+
+  private static Object parser(ClassLoader loader, String className) throws Exception {
+    return SampleParsers.load(loader, className).getConstructor(org.w3c.dom.Document.class)
+      .newInstance(SampleParsers.document());
+  }
+}
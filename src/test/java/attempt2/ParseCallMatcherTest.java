@@ -0,0 +1,52 @@
+package attempt2;
+
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseCallMatcherTest {
+  private static MethodCallExpr call(String expression) {
+    return Sources.parse("class A { Object a = " + expression + "; }").findFirst(MethodCallExpr.class).orElseThrow();
+  }
+
+  // The printed-source filter the matcher replaces, narrowed to parse calls with the value as first argument.
+  private static boolean printedMatch(MethodCallExpr call) {
+    String printed = call.toString();
+    return printed.contains(ParseCallMatcher.GET_ATTRIBUTE_VALUE)
+      && !printed.startsWith(ParseCallMatcher.GET_ATTRIBUTE_VALUE)
+      && call.getNameAsString().startsWith(ParseCallMatcher.PARSE_PREFIX)
+      && call.getArguments().isNonEmpty()
+      && call.getArgument(0).toString().startsWith(ParseCallMatcher.GET_ATTRIBUTE_VALUE);
+  }
+
+  @Test
+  void agreesWithPrintedFilterOnBundledParser() {
+    int matches = 0;
+    for (MethodCallExpr call : Sources.bundledUnit().findAll(MethodCallExpr.class)) {
+      assertEquals(printedMatch(call), ParseCallMatcher.matches(call), call.toString());
+      if (ParseCallMatcher.matches(call)) matches++;
+    }
+    assertTrue(matches > 100);
+  }
+
+  @Test
+  void matchesParseOfAttributeValue() {
+    assertTrue(ParseCallMatcher.matches(call("parseStringRequired(getAttributeValue(node, ID), ID)")));
+    assertTrue(ParseCallMatcher.matches(call("parseDouble(getAttributeValue(node, 0, PRICE), PRICE)")));
+    assertTrue(ParseCallMatcher.matches(call("this.parseAnything(getAttributeValue(node, ID))")));
+  }
+
+  @Test
+  void rejectsOtherCalls() {
+    assertFalse(ParseCallMatcher.matches(call("getAttributeValue(node, ID)")));
+    assertFalse(ParseCallMatcher.matches(call("parseStringRequired(value, ID)")));
+    assertFalse(ParseCallMatcher.matches(call("parseStringRequired()")));
+    assertFalse(ParseCallMatcher.matches(call("format(getAttributeValue(node, ID))")));
+    assertFalse(ParseCallMatcher.matches(call("parseStringRequired(name, getAttributeValue(node, ID))")));
+    // The printed form mentions getAttributeValue, the structure does not.
+    assertFalse(ParseCallMatcher.matches(call("parseStringRequired(\"getAttributeValue\", ID)")));
+  }
+}
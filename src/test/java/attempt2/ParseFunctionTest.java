@@ -0,0 +1,83 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseFunctionTest {
+  @Test
+  void findsEveryKnownNameInItsOwnSlot() {
+    List<String> names = new ArrayList<>();
+    for (String kind : new String[] {"String", "boolean", "Boolean", "int", "Int", "long", "Long", "float", "Float",
+      "double", "Double", "CodedValue"}) {
+      names.add("parse" + kind + "Required");
+      names.add("parse" + kind + "Optional");
+    }
+    names.add("parseDouble");
+    for (String time : new String[] {"", "_TimeNotAllowed", "_TimeIsOptional", "_TimeRequired"}) {
+      names.add("parseDateRequired" + time);
+      names.add("parseDateOptional" + time);
+    }
+    names.add("parseDateOptionalTime");
+    names.add("parseDateRequiredTime");
+
+    Set<ParseFunction> functions = new HashSet<>();
+    for (String name : names) {
+      ParseFunction function = ParseFunction.of(name);
+      assertTrue(function.isKnown(), name);
+      assertEquals(name, function.getName());
+      assertSame(function, ParseFunction.of(new String(name)));
+      functions.add(function);
+    }
+    assertEquals(names.size(), functions.size());
+  }
+
+  @Test
+  void describesTheValueOfKnownNames() {
+    ParseFunction coded = ParseFunction.of("parseCodedValueOptional");
+    assertEquals(ParseFunction.ValueKind.CODED_VALUE, coded.getValueKind());
+    assertFalse(coded.isRequired());
+    assertEquals(ParseFunction.TimePart.NONE, coded.getTimePart());
+
+    assertEquals(ParseFunction.ValueKind.INT, ParseFunction.of("parseintRequired").getValueKind());
+    assertTrue(ParseFunction.of("parseDouble").isRequired());
+    ParseFunction noTime = ParseFunction.of("parseDateOptional_TimeNotAllowed");
+    assertEquals(ParseFunction.TimePart.NOT_ALLOWED, noTime.getTimePart());
+    assertEquals(ParseFunction.TimePart.OPTIONAL, ParseFunction.of("parseDateRequired").getTimePart());
+    ParseFunction requiredTime = ParseFunction.of("parseDateOptionalTime");
+    assertTrue(requiredTime.isRequired());
+    assertEquals(ParseFunction.ValueKind.DATE, requiredTime.getValueKind());
+  }
+
+  @Test
+  void unknownNamesFallBackByTheirSuffix() {
+    for (String name : new String[] {"parseBigDecimalRequired", "parseUuid", "parseStringrequired", "", "parse"}) {
+      ParseFunction function = ParseFunction.of(name);
+      assertFalse(function.isKnown(), name);
+      assertEquals(ParseFunction.ValueKind.UNKNOWN, function.getValueKind());
+      assertTrue(function.isRequired(), name);
+      assertEquals(name, function.getName());
+    }
+    ParseFunction optional = ParseFunction.of("parseBigDecimalOptional");
+    assertFalse(optional.isKnown());
+    assertFalse(optional.isRequired());
+    assertNotSame(optional, ParseFunction.of("parseBigDecimalOptional"));
+  }
+
+  @Test
+  void bundledParserOnlyCallsKnownParseFunctions() {
+    List<XMLAttribute> attributes = new ArrayList<>();
+    Sources.bundledUnit().accept(new AttributeVisitor(), attributes::add);
+    assertFalse(attributes.isEmpty());
+    for (XMLAttribute attribute : attributes) assertTrue(attribute.getParseFunction().isKnown(), attribute.toString());
+  }
+}
@@ -0,0 +1,56 @@
+package attempt2;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParserConfigurationsTest {
+  private static CompilationUnit parse(ParserConfiguration configuration, String source) {
+    return new JavaParser(configuration).parse(source).getResult().orElseThrow();
+  }
+
+  private static List<String> attributes(CompilationUnit cu) {
+    List<String> attributes = new ArrayList<>();
+    AttributeExtractor.extract(cu, attribute -> attributes.add(Sources.fields(attribute)));
+    return attributes;
+  }
+
+  @Test
+  void leanParseExtractsTheSameAttributes() {
+    String source = Sources.bundled();
+    assertEquals(attributes(parse(ParserConfigurations.full(), source)),
+      attributes(parse(ParserConfigurations.lean(), source)));
+  }
+
+  @Test
+  void leanParseDropsComments() {
+    String source = Sources.lines(
+      "class A {",
+      "  /** The id. */",
+      "  String getId() throws Exception {",
+      "    return parseStringRequired(getAttributeValue(node, ID), ID);",
+      "  }",
+      "}");
+    MethodDeclaration full = parse(ParserConfigurations.full(), source).findFirst(MethodDeclaration.class).get();
+    MethodDeclaration lean = parse(ParserConfigurations.lean(), source).findFirst(MethodDeclaration.class).get();
+    assertTrue(full.getComment().isPresent());
+    assertFalse(lean.getComment().isPresent());
+  }
+
+  @Test
+  void languageLevelIsConfigurable() {
+    String source = "class A { void a(Object o) { if (o instanceof String s) {} } }";
+    assertTrue(new JavaParser(ParserConfigurations.lean()).parse(source).isSuccessful());
+    assertFalse(new JavaParser(ParserConfigurations.lean(ParserConfiguration.LanguageLevel.JAVA_8)).parse(source)
+      .isSuccessful());
+  }
+}
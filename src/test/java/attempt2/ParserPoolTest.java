@@ -0,0 +1,72 @@
+package attempt2;
+
+import com.github.javaparser.JavaParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParserPoolTest {
+  @Test
+  void reusesAnIdleParser() {
+    ParserPool pool = new ParserPool();
+    JavaParser first = pool.apply(parser -> parser);
+    assertSame(first, pool.apply(parser -> parser));
+  }
+
+  @Test
+  void concurrentBorrowersGetTheirOwnParser() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    ParserPool pool = new ParserPool(() -> {
+      created.incrementAndGet();
+      return ParserConfigurations.lean();
+    });
+    int threads = 4;
+    CountDownLatch allBorrowed = new CountDownLatch(threads);
+    Set<JavaParser> borrowed = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> pool.apply(parser -> {
+          borrowed.add(parser);
+          allBorrowed.countDown();
+          try {
+            return allBorrowed.await(10, TimeUnit.SECONDS) && parser.parse(Sources.bundled()).isSuccessful();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        })));
+      }
+      for (Future<Boolean> result : results) assertTrue(result.get());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(threads, borrowed.size());
+    assertEquals(threads, created.get());
+  }
+
+  @Test
+  void parserIsHandedBackWhenTheWorkFails() {
+    ParserPool pool = new ParserPool();
+    JavaParser[] failed = new JavaParser[1];
+    assertThrows(IllegalStateException.class, () -> pool.apply(parser -> {
+      failed[0] = parser;
+      throw new IllegalStateException();
+    }));
+    assertSame(failed[0], pool.apply(parser -> parser));
+  }
+}
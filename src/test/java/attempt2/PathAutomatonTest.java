@@ -0,0 +1,87 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathAutomatonTest {
+  @Test
+  void matchesStepsOnTheDescendantAxis() {
+    PathAutomaton automaton = new PathAutomaton(List.of("Order/OrderHead/Supplier"));
+    PathAutomaton.State start = automaton.start();
+
+    assertArrayEquals(new int[] {0}, matches(start, "Order", "OrderHead", "Supplier"));
+    assertArrayEquals(new int[] {0}, matches(start, "Orders", "Order", "Box", "OrderHead", "Info", "Supplier"));
+    assertArrayEquals(new int[] {0}, matches(start, "Order", "OrderHead", "Supplier", "Supplier"));
+    assertArrayEquals(new int[0], matches(start, "Order", "OrderHead", "Supplier", "Name"));
+    assertArrayEquals(new int[0], matches(start, "OrderHead", "Order", "Supplier"));
+    assertArrayEquals(new int[0], matches(start, "Order", "Supplier"));
+  }
+
+  @Test
+  void reportsEveryPathEndingAtTheElement() {
+    PathAutomaton automaton = new PathAutomaton(List.of("Supplier", "Order/OrderHead/Supplier", "Order/OrderLine"));
+
+    assertArrayEquals(new int[] {0}, matches(automaton.start(), "Supplier"));
+    assertArrayEquals(new int[] {0, 1}, matches(automaton.start(), "Order", "OrderHead", "Supplier"));
+    assertArrayEquals(new int[] {2}, matches(automaton.start(), "Order", "OrderLine"));
+    assertEquals(3, automaton.size());
+    assertEquals("Order/OrderLine", automaton.path(2));
+  }
+
+  @Test
+  void buildsEachStateOnce() {
+    PathAutomaton automaton = new PathAutomaton(List.of("Order/OrderLine"));
+    PathAutomaton.State order = automaton.start().next("Order");
+
+    assertSame(order, automaton.start().next("Order"));
+    // Unknown tags keep the positions, so they lead back to the same state.
+    assertSame(order, order.next("Note"));
+    for (int i = 0; i < 100; i++) matches(automaton.start(), "Order", "OrderLine", "Item" + i);
+    assertEquals(3, automaton.states());
+  }
+
+  @Test
+  void capturesTheAttributesOfTheSampleDocument() throws Exception {
+    ConstantIndex index = new ConstantIndex();
+    index.add(Sources.parse(SampleParsers.source("OrdersTypes")));
+    List<XMLAttribute> attributes = new ArrayList<>();
+    SampleParsers.model().getAttributes().forEach(attribute -> attributes.add(index.resolve(attribute)));
+    AttributeCapture capture = new AttributeCapture(attributes);
+
+    List<String> captured = new ArrayList<>();
+    capture.capture(new ByteArrayInputStream(SampleParsers.DOCUMENT.getBytes(StandardCharsets.UTF_8)),
+      (path, values) -> captured.add(path + " " + values));
+
+    assertTrue(capture.getSkipped().isEmpty(), capture.getSkipped().toString());
+    assertEquals(List.of(
+      "order/head {type=DIRECT, note=n}",
+      "order/head/customer {id=C1}",
+      "order/line {qty=2, no=a, op=A, price=1.5, rush=true}",
+      "order/line {no=b, op=D}",
+      "order/head {}",
+      "order/head/customer {id=C2}",
+      "order/line {qty=x, no=c, op=A, price=3}"), captured);
+  }
+
+  @Test
+  void skipsAttributesWithoutAResolvedPath() {
+    List<XMLAttribute> attributes = new ArrayList<>();
+    Sources.parse(Sources.parser("P", "node", "Id")).accept(new AttributeVisitor(), attributes::add);
+
+    assertEquals(attributes, new AttributeCapture(attributes).getSkipped());
+  }
+
+  private static int[] matches(PathAutomaton.State state, String... tags) {
+    for (String tag : tags) state = state.next(tag);
+    return state.matches();
+  }
+}
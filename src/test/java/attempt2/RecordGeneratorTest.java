@@ -0,0 +1,103 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordGeneratorTest {
+  // Malformed values fail the load, so the sample document without its qty that is not a number.
+  private static final String DOCUMENT = SampleParsers.DOCUMENT.replace("qty='x' ", "");
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void loadsOneBatchPerUnitWithTheValuesOfTheDomParser() throws Exception {
+    List<Object> batches = load(1);
+
+    assertEquals(2, batches.size());
+    List<?> lines = (List<?>) SampleParsers.call(batches.get(0), "orderLines");
+    assertEquals(2, lines.size());
+    Object first = lines.get(0);
+    assertEquals(0, SampleParsers.call(first, "orderIndex"));
+    assertEquals(2, SampleParsers.call(first, "qty"));
+    assertEquals("a", SampleParsers.call(first, "itemNo"));
+    assertEquals(1.5, SampleParsers.call(first, "price"));
+    assertEquals(true, SampleParsers.call(first, "rush"));
+    List<?> customers = (List<?>) SampleParsers.call(batches.get(1), "customers");
+    assertEquals("C2", SampleParsers.call(customers.get(0), "customerId"));
+    assertEquals(0, SampleParsers.call(customers.get(0), "orderIndex"));
+  }
+
+  @Test
+  void tracksAbsentAttributesInsteadOfFailing() throws Exception {
+    List<Object> batches = load(10);
+
+    assertEquals(1, batches.size());
+    List<?> lines = (List<?>) SampleParsers.call(batches.get(0), "orderLines");
+    Object withoutQty = lines.get(1);
+    assertEquals("b", SampleParsers.call(withoutQty, "itemNo"));
+    assertEquals(0, SampleParsers.call(withoutQty, "qty"));
+    assertEquals(false, SampleParsers.call(withoutQty, "hasQty"));
+    assertEquals(true, SampleParsers.call(withoutQty, "hasItemNo"));
+    assertEquals(false, SampleParsers.call(withoutQty, "isComplete"));
+    assertEquals(true, SampleParsers.call(lines.get(0), "isComplete"));
+    assertEquals(1, SampleParsers.call(lines.get(2), "orderIndex"));
+    List<?> heads = (List<?>) SampleParsers.call(batches.get(0), "orderHeads");
+    assertNull(SampleParsers.call(heads.get(1), "deliveryType"));
+    assertEquals(false, SampleParsers.call(heads.get(1), "isComplete"));
+  }
+
+  @Test
+  void keepsPrimitivesUnboxedAndOptionalAttributesOptional() throws Exception {
+    Object withoutPrice = ((List<?>) SampleParsers.call(load(10).get(0), "orderLines")).get(1);
+
+    assertEquals(0.0, SampleParsers.call(withoutPrice, "price"));
+    assertEquals(false, SampleParsers.call(withoutPrice, "hasPrice"));
+    assertEquals(false, SampleParsers.call(withoutPrice, "rush"));
+    String source = RecordGenerator.generate(SampleParsers.model());
+    assertTrue(source.contains("    int qty,"), source);
+    assertTrue(source.contains("    double price,"), source);
+    assertTrue(source.contains("    boolean rush) {"), source);
+    // qty and operation are required, price is turned optional by its getter.
+    assertTrue(source.contains("private static final long REQUIRED = 0x5L;"), source);
+  }
+
+  @Test
+  void addsEveryElementToTheRecordOfItsMostSpecificPath() {
+    String source = RecordGenerator.generate(ParserClassModel.of(Sources.bundledUnit()).orElseThrow());
+    int specific = source.indexOf("{ORDER, ORDER_HEAD, CUSTOMER},");
+    int anywhere = source.indexOf("{CUSTOMER},");
+    assertTrue(specific > 0 && anywhere > specific, source);
+    assertTrue(source.contains("add(batch, path, unitIndex, reader);\n            break;"), source);
+  }
+
+  private List<Object> load(int batchSize) throws Exception {
+    ParserClassModel model = SampleParsers.model();
+    String className = RecordGenerator.className(model);
+    ClassLoader loader = SampleParsers.compile(dir, className, RecordGenerator.generate(model));
+    Method load = SampleParsers.load(loader, className)
+      .getMethod("load", XMLStreamReader.class, int.class, Consumer.class);
+    XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(DOCUMENT));
+    List<Object> batches = new ArrayList<>();
+    try {
+      load.invoke(null, reader, batchSize, (Consumer<Object>) batches::add);
+    } catch (InvocationTargetException e) {
+      throw (Exception) e.getCause();
+    }
+    return batches;
+  }
+}
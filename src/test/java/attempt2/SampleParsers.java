@@ -0,0 +1,133 @@
+package attempt2;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The sample DOM parser under src/test/resources/sample with what the generator tests need around it: its model,
+ * compiling it together with generated code, a sample document, and a trace of what its getters return or throw.
+ */
+final class SampleParsers {
+  static final String PACKAGE = "sample";
+  static final String PARSER = "SampleParser";
+  // Relative to the package, with the exceptions imported from a package of their own as in the MACom parsers.
+  static final List<String> SOURCES = List.of("macom/MAException", "macom/MAComFieldMissingException",
+    "macom/MAComOptionalFieldMissingException", "DelivType", "Operation2", "OrdersTypes", PARSER);
+  static final List<String> ORDER_GETTERS = List.of("getCustomerId", "getDelivType", "getNote");
+  static final List<String> LINE_GETTERS = List.of("getQty", "getItemNo", "getOperation", "getPrice", "getRush");
+
+  // Absent and malformed attributes on purpose: no DELIVERY_TYPE and no NOTE in the second order, no QTY, PRICE and
+  // RUSH in the second line, and a QTY that is not a number.
+  static final String DOCUMENT = "<orders>"
+    + "<order><head type='DIRECT' note='n'><customer id='C1'/></head>"
+    + "<line qty='2' no='a' op='A' price='1.5' rush='true'/><line no='b' op='D'/></order>"
+    + "<order><head><customer id='C2'/></head><line qty='x' no='c' op='A' price='3'/></order>"
+    + "</orders>";
+
+  private SampleParsers() {
+  }
+
+  static String source(String name) {
+    try (InputStream in = SampleParsers.class.getResourceAsStream("/" + PACKAGE + "/" + name + ".java")) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static ParserClassModel model() {
+    return ParserClassModel.of(Sources.parse(source(PARSER))).orElseThrow();
+  }
+
+  /**
+   * Compiles the sample sources with the generated class into dir and loads them.
+   */
+  static ClassLoader compile(Path dir, String generatedClass, String generatedSource) throws IOException {
+    return compile(dir, Map.of(generatedClass, generatedSource));
+  }
+
+  /**
+   * Compiles the sample sources with the given ones, by simple class name in the sample package, and loads them.
+   */
+  static ClassLoader compile(Path dir, Map<String, String> generated) throws IOException {
+    Path sources = Files.createDirectories(dir.resolve("src").resolve(PACKAGE));
+    Path classes = Files.createDirectories(dir.resolve("classes"));
+    List<String> arguments = new ArrayList<>(List.of("-d", classes.toString()));
+    for (String name : SOURCES) {
+      Path source = sources.resolve(name + ".java");
+      Files.createDirectories(source.getParent());
+      arguments.add(Files.writeString(source, source(name)).toString());
+    }
+    for (var entry : generated.entrySet()) {
+      arguments.add(Files.writeString(sources.resolve(entry.getKey() + ".java"), entry.getValue()).toString());
+    }
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    int status = compiler.run(null, null, errors, arguments.toArray(new String[0]));
+    assertEquals(0, status, errors.toString() + String.join("\n", generated.values()));
+    return new URLClassLoader(new URL[] {classes.toUri().toURL()}, SampleParsers.class.getClassLoader());
+  }
+
+  static Class<?> load(ClassLoader loader, String simpleName) throws ClassNotFoundException {
+    return Class.forName(PACKAGE + "." + simpleName, true, loader);
+  }
+
+  static org.w3c.dom.Document document() throws Exception {
+    return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+      .parse(new ByteArrayInputStream(DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Walks a parser or anything with the same next methods and getters through the document.
+   */
+  static String trace(Object parser) throws Exception {
+    StringJoiner trace = new StringJoiner("\n");
+    while ((Boolean) call(parser, "nextOrder")) {
+      trace.add(getters(parser, ORDER_GETTERS));
+      while ((Boolean) call(parser, "nextOrderLine")) trace.add("  " + getters(parser, LINE_GETTERS));
+    }
+    return trace.toString();
+  }
+
+  static String getters(Object target, List<String> getters) {
+    StringJoiner values = new StringJoiner(" ");
+    for (String getter : getters) {
+      try {
+        values.add(getter + "=" + call(target, getter));
+      } catch (Exception e) {
+        values.add(getter + "!" + e.getClass().getSimpleName());
+      }
+    }
+    return values.toString();
+  }
+
+  static Object call(Object target, String method) throws Exception {
+    Method declared = target.getClass().getMethod(method);
+    declared.setAccessible(true);
+    try {
+      return declared.invoke(target);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanDetectorTest {
+  private static final String PARSER = Sources.lines(
+    "class P {",
+    "  private NodeList orderNodeList;",
+    "  private NodeList orderLineNodeList;",
+    "  private Node orderHeadNode;",
+    "  private Node orderLineNode;",
+    "  private Node infoNode;",
+    "  private int currentOrderNodeIndex = -1;",
+    "  private int currentOrderLineNodeIndex = -1;",
+    "  P(Document doc) { orderNodeList = doc.getElementsByTagName(ORDER); }",
+    "  public boolean nextOrder() {",
+    "    if (++currentOrderNodeIndex >= orderNodeList.getLength()) return false;",
+    "    Element order = (Element) orderNodeList.item(currentOrderNodeIndex);",
+    "    orderHeadNode = order.getElementsByTagName(ORDER_HEAD).item(0);",
+    "    orderLineNodeList = order.getElementsByTagName(ORDER_LINE);",
+    "    currentOrderLineNodeIndex = -1;",
+    "    return true;",
+    "  }",
+    "  public boolean nextOrderLine() {",
+    "    if (++currentOrderLineNodeIndex >= orderLineNodeList.getLength()) return false;",
+    "    orderLineNode = orderLineNodeList.item(currentOrderLineNodeIndex);",
+    "    Element line = (Element) orderLineNodeList.item(currentOrderLineNodeIndex);",
+    "    infoNode = line.getElementsByTagName(INFO).item(0);",
+    "    Node text = line.getElementsByTagName(INFO).item(0);",
+    "    Node head = ((Element) orderHeadNode).getElementsByTagName(CUSTOMER).item(0);",
+    "    return true;",
+    "  }",
+    "  public String getId() throws Exception { return parseStringRequired(getAttributeValue(infoNode, ID), ID); }",
+    "}");
+
+  @Test
+  void findsEveryKindOfRedundantScan() {
+    List<ScanDetector.Finding> findings = ScanDetector.detect(Sources.parse(PARSER));
+
+    ScanDetector.Finding subtree = find(findings, "nextOrder", ScanDetector.Kind.SUBTREE_RESCAN);
+    assertEquals("orderNodeList", subtree.getScope());
+    assertEquals(List.of("ORDER_HEAD", "ORDER_LINE"), subtree.getTargets());
+    assertEquals(List.of("ORDER"), subtree.getIterations());
+
+    ScanDetector.Finding repeated = find(findings, "nextOrderLine", ScanDetector.Kind.REPEATED_SCAN);
+    assertEquals("orderLineNodeList", repeated.getScope());
+    assertEquals(List.of("INFO"), repeated.getTargets());
+    assertEquals(1, repeated.getRedundant());
+    assertEquals(List.of("ORDER", "ORDER_LINE"), repeated.getIterations());
+
+    ScanDetector.Finding invariant = find(findings, "nextOrderLine", ScanDetector.Kind.INVARIANT_SCAN);
+    assertEquals("orderHeadNode", invariant.getScope());
+    assertEquals(List.of("CUSTOMER"), invariant.getTargets());
+
+    ScanDetector.Finding item = find(findings, "nextOrderLine", ScanDetector.Kind.REPEATED_ITEM);
+    assertEquals("orderLineNodeList", item.getScope());
+    assertEquals(List.of("currentOrderLineNodeIndex"), item.getTargets());
+  }
+
+  @Test
+  void weighsFindingsByTheListsTheMethodIterates() {
+    List<ScanDetector.Finding> findings = ScanDetector.detect(Sources.parse(PARSER));
+
+    int size = ScanDetector.ASSUMED_LIST_SIZE;
+    assertEquals(size, find(findings, "nextOrder", ScanDetector.Kind.SUBTREE_RESCAN).getEstimatedCost());
+    assertEquals(size * size, find(findings, "nextOrderLine", ScanDetector.Kind.INVARIANT_SCAN).getEstimatedCost());
+    for (int i = 1; i < findings.size(); i++) {
+      assertTrue(findings.get(i - 1).getEstimatedCost() >= findings.get(i).getEstimatedCost());
+    }
+  }
+
+  @Test
+  void bundledParserRescansTheOrderHead() {
+    List<ScanDetector.Finding> findings = ScanDetector.detect(Sources.bundledUnit());
+
+    ScanDetector.Finding repeated = find(findings, "nextOrder", ScanDetector.Kind.REPEATED_SCAN);
+    assertEquals("orderHeadNode", repeated.getScope());
+    assertEquals(List.of("SUPPLIER"), repeated.getTargets());
+    assertEquals(1, repeated.getRedundant());
+    assertEquals("nextBoxLine", findings.get(0).getMethodName());
+  }
+
+  @Test
+  void scansInExclusiveBranchesAreNotRepeated() {
+    List<ScanDetector.Finding> findings = ScanDetector.detect(Sources.parse(Sources.lines(
+      "class P {",
+      "  private NodeList orderNodeList;",
+      "  private Node orderHeadNode;",
+      "  private Node customerNode;",
+      "  private int currentOrderNodeIndex = -1;",
+      "  P(Document doc) { orderNodeList = doc.getElementsByTagName(ORDER); }",
+      "  public boolean nextOrder() {",
+      "    if (++currentOrderNodeIndex >= orderNodeList.getLength()) return false;",
+      "    orderHeadNode = ((Element) orderNodeList.item(currentOrderNodeIndex)).getElementsByTagName(HEAD).item(0);",
+      "    if (old) {",
+      "      customerNode = ((Element) orderHeadNode).getElementsByTagName(CUSTOMER).item(0);",
+      "    } else if (extended) {",
+      "      customerNode = ((Element) orderHeadNode).getElementsByTagName(CUSTOMER).item(0);",
+      "    } else {",
+      "      customerNode = ((Element) orderHeadNode).getElementsByTagName(CUSTOMER).item(0);",
+      "      customerNode = ((Element) orderHeadNode).getElementsByTagName(CUSTOMER).item(0);",
+      "    }",
+      "    return true;",
+      "  }",
+      "  public String getId() throws Exception {",
+      "    return parseStringRequired(getAttributeValue(customerNode, ID), ID);",
+      "  }",
+      "}")));
+
+    ScanDetector.Finding repeated = find(findings, "nextOrder", ScanDetector.Kind.REPEATED_SCAN);
+    assertEquals("orderHeadNode", repeated.getScope());
+    assertEquals(List.of("CUSTOMER"), repeated.getTargets());
+    assertEquals(1, repeated.getRedundant());
+  }
+
+  @Test
+  void classWithoutNextMethodsHasNoFindings() {
+    assertTrue(ScanDetector.detect(Sources.parse(Sources.parser("P", "node", "Id"))).isEmpty());
+  }
+
+  private static ScanDetector.Finding find(List<ScanDetector.Finding> findings, String method,
+                                           ScanDetector.Kind kind) {
+    for (ScanDetector.Finding finding : findings) {
+      if (finding.getMethodName().equals(method) && finding.getKind() == kind) return finding;
+    }
+    throw new AssertionError("no " + kind + " in " + method + ": " + findings);
+  }
+}
@@ -0,0 +1,94 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotGeneratorTest {
+  @TempDir
+  Path dir;
+
+  @Test
+  void snapshotReturnsAndThrowsWhatTheDomParserDoes() throws Exception {
+    ClassLoader loader = compile();
+
+    String expected = SampleParsers.trace(parser(loader));
+    StringJoiner trace = new StringJoiner("\n");
+    for (Object order : orders(snapshot(loader))) {
+      trace.add(SampleParsers.getters(order, SampleParsers.ORDER_GETTERS));
+      for (Object line : (List<?>) SampleParsers.call(order, "getOrderLines")) {
+        trace.add("  " + SampleParsers.getters(line, SampleParsers.LINE_GETTERS));
+      }
+    }
+    assertEquals(expected, trace.toString());
+  }
+
+  @Test
+  void processesOrdersInParallelInTheirOrder() throws Exception {
+    ClassLoader loader = compile();
+    Object snapshot = snapshot(loader);
+    Class<?> snapshotClass = snapshot.getClass();
+    Class<?> work = Class.forName(snapshotClass.getName() + "$Work", true, loader);
+    Method process = snapshotClass.getMethod("process", List.class, ExecutorService.class, work);
+    Object customerIds = Proxy.newProxyInstance(loader, new Class<?>[] {work},
+      (proxy, method, arguments) -> SampleParsers.call(arguments[0], "getCustomerId"));
+    Object delivTypes = Proxy.newProxyInstance(loader, new Class<?>[] {work},
+      (proxy, method, arguments) -> SampleParsers.call(arguments[0], "getDelivType"));
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      List<Object> orders = new ArrayList<>();
+      for (int i = 0; i < 50; i++) orders.addAll(orders(snapshot));
+      List<?> results = (List<?>) invoke(process, orders, pool, customerIds);
+      assertEquals(100, results.size());
+      for (int i = 0; i < results.size(); i++) assertEquals(i % 2 == 0 ? "C1" : "C2", results.get(i));
+
+      ExecutionException failed = assertThrows(ExecutionException.class,
+        () -> invoke(process, orders(snapshot), pool, delivTypes));
+      assertEquals("MAComFieldMissingException", failed.getCause().getClass().getSimpleName());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private ClassLoader compile() throws Exception {
+    ParserClassModel model = SampleParsers.model();
+    return SampleParsers.compile(dir, SnapshotGenerator.className(model), SnapshotGenerator.generate(model));
+  }
+
+  private static Object parser(ClassLoader loader) throws Exception {
+    return SampleParsers.load(loader, SampleParsers.PARSER).getConstructor(org.w3c.dom.Document.class)
+      .newInstance(SampleParsers.document());
+  }
+
+  private static Object snapshot(ClassLoader loader) throws Exception {
+    Class<?> parser = SampleParsers.load(loader, SampleParsers.PARSER);
+    return SampleParsers.load(loader, SnapshotGenerator.className(SampleParsers.model())).getConstructor(parser)
+      .newInstance(parser(loader));
+  }
+
+  private static List<?> orders(Object snapshot) throws Exception {
+    return (List<?>) SampleParsers.call(snapshot, "getOrders");
+  }
+
+  private static Object invoke(Method method, Object... arguments) throws Exception {
+    try {
+      return method.invoke(null, arguments);
+    } catch (InvocationTargetException e) {
+      throw (Exception) e.getCause();
+    }
+  }
+}
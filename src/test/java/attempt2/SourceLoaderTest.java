@@ -0,0 +1,65 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceLoaderTest {
+  @TempDir
+  Path dir;
+
+  // A comment with an o umlaut in ISO-8859-1: the 0xF6 byte is not valid UTF-8.
+  private Path latin1Source() throws IOException {
+    String source = "// Sj\u00f6berg\n" + Sources.parser("A", "node", "Id");
+    return Files.write(dir.resolve("A.java"), source.getBytes(StandardCharsets.ISO_8859_1));
+  }
+
+  @Test
+  void decodesWithTheGivenCharset() throws IOException {
+    SourceLoader.Source source = new SourceLoader().load(latin1Source());
+    assertEquals(StandardCharsets.ISO_8859_1, new SourceLoader().charset());
+    assertTrue(source.chars().toString().startsWith("// Sj\u00f6berg\n"));
+  }
+
+  @Test
+  void reportsUndecodableInput() throws IOException {
+    SourceLoader.Source source = new SourceLoader(StandardCharsets.UTF_8).load(latin1Source());
+    assertThrows(CharacterCodingException.class, source::chars);
+  }
+
+  @Test
+  void extractionNamesTheCharsetOfUndecodableSources() throws IOException {
+    Path path = latin1Source();
+    Map<Path, RuntimeException> failures = new LinkedHashMap<>();
+    BatchExtraction extraction = new BatchExtraction(1, new ParserPool(), new SourceLoader(StandardCharsets.UTF_8),
+      null, null);
+    assertTrue(extraction.run(List.of(path), failures::put).isEmpty());
+    assertTrue(failures.get(path).getMessage().contains("UTF-8"));
+    assertEquals(1, new BatchExtraction(1).run(List.of(path)).get(path).size());
+  }
+
+  @Test
+  void bytesAreIndependentReadOnlyViews() throws IOException {
+    Path path = latin1Source();
+    SourceLoader.Source source = new SourceLoader().load(path);
+    ByteBuffer first = source.bytes();
+    first.position(5);
+    ByteBuffer second = source.bytes();
+    assertEquals(0, second.position());
+    assertEquals(Files.size(path), second.remaining());
+    assertTrue(second.isReadOnly());
+  }
+}
@@ -0,0 +1,67 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small inline sources and the bundled parser.java for the tests, parsed like {@link Parsing} does.
+ */
+final class Sources {
+  private static final ParserPool PARSERS = new ParserPool();
+
+  private Sources() {
+  }
+
+  static String lines(String... lines) {
+    return String.join("\n", lines) + "\n";
+  }
+
+  static CompilationUnit parse(String source) {
+    var result = PARSERS.apply(parser -> parser.parse(source));
+    return result.getResult().filter(r -> result.isSuccessful())
+      .orElseThrow(() -> new IllegalArgumentException(result.getProblems().toString()));
+  }
+
+  static String bundled() {
+    try (InputStream in = Parsing.class.getResourceAsStream("/" + Parsing.BUNDLED_SOURCE)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static CompilationUnit bundledUnit() {
+    return parse(bundled());
+  }
+
+  // Every field of the attribute, since toString() keeps to the plain text output format.
+  static String fields(XMLAttribute attribute) {
+    return String.join("|", attribute.getMethodName(), attribute.getXmlNodeVariable(), attribute.getElementPath(),
+      attribute.getType(), String.valueOf(attribute.getParseFunction()), String.valueOf(attribute.isRequired()),
+      attribute.getAttributeConstant(), attribute.getAttributeName(), attribute.getResolvedElementPath());
+  }
+
+  static List<String> fields(List<XMLAttribute> attributes) {
+    List<String> fields = new ArrayList<>();
+    attributes.forEach(attribute -> fields.add(fields(attribute)));
+    return fields;
+  }
+
+  // One getter per attribute, reading from the given node variable.
+  static String parser(String className, String node, String... attributes) {
+    StringBuilder source = new StringBuilder("class " + className + " {\n");
+    for (String attribute : attributes) {
+      source.append("  String get").append(attribute).append("() throws Exception {\n")
+        .append("    return parseStringRequired(getAttributeValue(").append(node).append(", ")
+        .append(attribute.toUpperCase()).append("), ").append(attribute.toUpperCase()).append(");\n")
+        .append("  }\n");
+    }
+    return source.append("}\n").toString();
+  }
+}
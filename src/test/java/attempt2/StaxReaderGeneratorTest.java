@@ -0,0 +1,85 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaxReaderGeneratorTest {
+  @TempDir
+  Path dir;
+
+  @Test
+  void generatedReaderReturnsAndThrowsWhatTheDomParserDoes() throws Exception {
+    ParserClassModel model = SampleParsers.model();
+    String className = StaxReaderGenerator.className(model);
+    // SampleParser reads booleans with Boolean.parseBoolean, which the generated reader leaves to a subclass.
+    String subclass = Sources.lines(
+      "package sample;",
+      "",
+      "import javax.xml.stream.XMLStreamReader;",
+      "",
+      "public class SampleReader extends " + className + " {",
+      "  public SampleReader(XMLStreamReader reader) {",
+      "    super(reader);",
+      "  }",
+      "",
+      "  @Override",
+      "  protected boolean toBoolean(String value) {",
+      "    return Boolean.parseBoolean(value);",
+      "  }",
+      "}");
+    ClassLoader loader = SampleParsers.compile(dir,
+      Map.of(className, StaxReaderGenerator.generate(model), "SampleReader", subclass));
+
+    Object dom = SampleParsers.load(loader, SampleParsers.PARSER).getConstructor(org.w3c.dom.Document.class)
+      .newInstance(SampleParsers.document());
+    XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(
+      new StringReader(SampleParsers.DOCUMENT));
+    Object stax = SampleParsers.load(loader, "SampleReader").getConstructor(XMLStreamReader.class)
+      .newInstance(reader);
+
+    String expected = SampleParsers.trace(dom);
+    assertTrue(expected.contains("getQty!NumberFormatException"), expected);
+    assertTrue(expected.contains("getDelivType!MAComFieldMissingException"), expected);
+    assertEquals(expected, SampleParsers.trace(stax));
+  }
+
+  @Test
+  void keepsTheDeclarationsOfTheDomGetters() {
+    String source = StaxReaderGenerator.generate(SampleParsers.model());
+    assertTrue(source.contains("import sample.macom.MAComFieldMissingException;"), source);
+    assertTrue(source.contains("public int getQty() throws MAException {"), source);
+    assertTrue(source.contains("public Operation2 getOperation() throws MAException {"), source);
+    assertTrue(source.contains("return new MAComFieldMissingException(\"Field \" + name + \" is missing\", 0, null);"),
+      source);
+  }
+
+  @Test
+  void leavesWhatTheDomClassInheritsToASubclass() {
+    String source = StaxReaderGenerator.generate(ParserClassModel.of(Sources.bundledUnit()).orElseThrow());
+    assertTrue(source.contains("public abstract class InboundOrdersTransParserXMLStax {"), source);
+    assertTrue(source.contains("protected abstract MAComFieldMissingException missing(String name);"), source);
+    assertTrue(source.contains("protected abstract boolean toBoolean(String value);"), source);
+    assertTrue(source.contains("protected abstract Date toDate(String value);"), source);
+    // The bundled parser constructs the optional one itself, after catching the required one.
+    assertTrue(source.contains(
+      "return new MAComOptionalFieldMissingException(\"Field \" + name + \" is optional\", 0, null);"), source);
+  }
+
+  @Test
+  void staysConcreteWhenNothingIsInherited() {
+    String source = StaxReaderGenerator.generate(ParserClassModel.of(Sources.parse(
+      Sources.parser("P", "node", "Id"))).orElseThrow());
+    assertTrue(source.contains("public class PStax {"), source);
+    assertFalse(source.contains("abstract"), source);
+  }
+}
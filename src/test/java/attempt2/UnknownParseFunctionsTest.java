@@ -0,0 +1,38 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnknownParseFunctionsTest {
+  @Test
+  void passesEverythingOnAndListsUnknownFunctionsWhenClosed() {
+    String source = Sources.lines(
+      "class P {",
+      "  String getA() throws Exception { return parseStringRequired(getAttributeValue(node, A), A); }",
+      "  Object getB() throws Exception { return parseUuidOptional(getAttributeValue(node, B), B); }",
+      "  Object getC() throws Exception { return parseUuidOptional(getAttributeValue(node, C), C); }",
+      "}");
+    StringWriter out = new StringWriter();
+    ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+    try (AttributeSink sink = new UnknownParseFunctions(new WriterSink(out),
+      new PrintStream(diagnostics, true, StandardCharsets.UTF_8))) {
+      sink.source(Paths.get("P.java"));
+      Sources.parse(source).accept(new AttributeVisitor(), sink::attribute);
+      sink.source(Paths.get("Q.java"));
+    }
+
+    assertEquals(3, out.toString().split(System.lineSeparator()).length);
+    String reported = diagnostics.toString(StandardCharsets.UTF_8);
+    assertEquals("unknown parse function parseUuidOptional: 2 call(s), first in P.java" + System.lineSeparator(),
+      reported);
+    assertTrue(out.toString().contains("type='Object'"));
+  }
+}
@@ -0,0 +1,77 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatchModeTest {
+  @TempDir
+  Path dir;
+
+  private Path write(String name, String source) throws IOException {
+    return Files.writeString(dir.resolve(name), source, StandardCharsets.ISO_8859_1);
+  }
+
+  private static Map.Entry<Path, List<XMLAttribute>> next(BlockingQueue<Map.Entry<Path, List<XMLAttribute>>> events)
+    throws InterruptedException {
+    Map.Entry<Path, List<XMLAttribute>> event = events.poll(20, TimeUnit.SECONDS);
+    assertNotNull(event, "no event");
+    return event;
+  }
+
+  @Test
+  void reExtractsChangedAndDeletedSourcesAndSavesTheCache() throws Exception {
+    Path a = write("A.java", Sources.parser("A", "node", "Id"));
+    Path broken = write("Broken.java", "class Broken { String get() { return parseStringRequired(getAttributeValue(");
+    Path cacheFile = dir.resolve("cache.bin");
+    WatchMode watch = new WatchMode(new BatchExtraction(2, ExtractionCache.load(cacheFile)), 50);
+    BlockingQueue<Map.Entry<Path, List<XMLAttribute>>> events = new LinkedBlockingQueue<>();
+    Thread thread = new Thread(() -> {
+      try {
+        watch.watch(List.of(dir), (source, attributes) -> events.add(Map.entry(source, attributes)));
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+    try {
+      // The broken source is reported and skipped, the first pass goes on.
+      Map.Entry<Path, List<XMLAttribute>> first = next(events);
+      assertEquals(a, first.getKey());
+      assertEquals(1, first.getValue().size());
+      assertFalse(watch.model().containsKey(broken));
+      for (int i = 0; i < 200 && !Files.exists(cacheFile); i++) Thread.sleep(50);
+      assertTrue(Files.exists(cacheFile));
+
+      write("A.java", Sources.parser("A", "node", "Id", "Name"));
+      Map.Entry<Path, List<XMLAttribute>> changed = next(events);
+      assertEquals(a, changed.getKey());
+      assertEquals(2, changed.getValue().size());
+
+      Files.delete(a);
+      Map.Entry<Path, List<XMLAttribute>> deleted = next(events);
+      assertEquals(a, deleted.getKey());
+      assertTrue(deleted.getValue().isEmpty());
+      assertFalse(watch.model().containsKey(a));
+    } finally {
+      thread.interrupt();
+      thread.join(10_000);
+    }
+  }
+}
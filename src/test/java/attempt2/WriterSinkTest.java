@@ -0,0 +1,73 @@
+package attempt2;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WriterSinkTest {
+  @TempDir
+  Path dir;
+
+  private static final String NL = System.lineSeparator();
+
+  @Test
+  void streamedRunWritesSourcesInOrder() throws IOException {
+    List<Path> sources = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      sources.add(Files.writeString(dir.resolve("P" + i + ".java"), Sources.parser("P" + i, "node", "Id", "Name"),
+        StandardCharsets.ISO_8859_1));
+    }
+    Map<Path, List<XMLAttribute>> extracted = new BatchExtraction(3).run(sources);
+    StringBuilder expected = new StringBuilder();
+    for (Path source : sources) {
+      extracted.get(source).forEach(attribute -> expected.append(attribute).append(NL));
+    }
+
+    StringWriter out = new StringWriter();
+    try (AttributeSink sink = new WriterSink(out)) {
+      new BatchExtraction(3).run(sources, sink);
+    }
+    assertEquals(expected.toString(), out.toString());
+  }
+
+  @Test
+  void buffersUntilFlushed() {
+    StringWriter out = new StringWriter();
+    WriterSink sink = new WriterSink(out);
+    XMLAttribute attribute = new XMLAttribute("getId", "node", null, "String", "parseStringRequired", "ID", null,
+      null);
+    sink.source(Paths.get("A.java"));
+    sink.attribute(attribute);
+    assertEquals("", out.toString());
+    sink.flush();
+    assertEquals("XMLAttribute[xmlNodeVariable='node', type='String', required=true]" + NL, out.toString());
+  }
+
+  @Test
+  void tsvWritesHeaderAndEmptyFieldsForAbsentValues() {
+    StringWriter out = new StringWriter();
+    try (AttributeSink sink = OutputFormat.of("tsv").sink(out)) {
+      sink.source(Paths.get("A.java"));
+      sink.attribute(new XMLAttribute("getId", "node", null, "String", "parseStringOptional", "ID", "id", null));
+    }
+    assertEquals(TsvSink.HEADER + NL + "A.java\tgetId\tnode\t\tString\tparseStringOptional\tfalse\tID\tid\t" + NL,
+      out.toString());
+  }
+
+  @Test
+  void rejectsUnknownFormat() {
+    assertThrows(IllegalArgumentException.class, () -> OutputFormat.of("xml"));
+  }
+}
@@ -0,0 +1,73 @@
+package attempt2;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XMLAttributeTest {
+  private static MethodCallExpr parseCall(String source) {
+    return Sources.parse(source).findFirst(MethodCallExpr.class, ParseCallMatcher::matches).orElseThrow();
+  }
+
+  @Test
+  void knownMethodGivesTheSameAttributeAsTheLookup() {
+    CompilationUnit cu = Sources.bundledUnit();
+    List<String> lookedUp = new ArrayList<>();
+    for (MethodCallExpr call : cu.findAll(MethodCallExpr.class, ParseCallMatcher::matches)) {
+      lookedUp.add(Sources.fields(new XMLAttribute(call)));
+    }
+    List<String> visited = new ArrayList<>();
+    cu.accept(new AttributeVisitor(), attribute -> visited.add(Sources.fields(
+      new XMLAttribute(attribute.getMethodName(), attribute.getXmlNodeVariable(), null, attribute.getType(),
+        attribute.getParseFunction().getName(), attribute.getAttributeConstant(), null, null))));
+    lookedUp.sort(null);
+    visited.sort(null);
+    assertEquals(lookedUp, visited);
+  }
+
+  @Test
+  void readsNodeVariableAndConstant() {
+    XMLAttribute attribute = new XMLAttribute(parseCall(Sources.lines(
+      "class A {",
+      "  Date getStart() throws Exception {",
+      "    return parseDateOptional(getAttributeValue(cumulatedNode, 0, ForecastTypes.START_DATE), START_DATE);",
+      "  }",
+      "}")));
+    assertEquals("getStart", attribute.getMethodName());
+    assertEquals("Date", attribute.getType());
+    assertEquals("cumulatedNode", attribute.getXmlNodeVariable());
+    assertEquals("ForecastTypes.START_DATE", attribute.getAttributeConstant());
+    assertEquals(ParseFunction.ValueKind.DATE, attribute.getParseFunction().getValueKind());
+    assertNull(attribute.getElementPath());
+    assertNull(attribute.getAttributeName());
+  }
+
+  @Test
+  void interningKeepsOneTypeInstancePerMethod() {
+    List<XMLAttribute> attributes = AttributeExtractor.extract(Sources.parse(Sources.lines(
+      "class A {",
+      "  String getBoth() throws Exception {",
+      "    return parseStringRequired(getAttributeValue(node, FIRST), FIRST)",
+      "      + parseStringOptional(getAttributeValue(node, SECOND), SECOND);",
+      "  }",
+      "}")));
+    assertEquals(2, attributes.size());
+    assertSame(attributes.get(0).getType(), attributes.get(1).getType());
+    assertSame(attributes.get(0).getMethodName(), attributes.get(1).getMethodName());
+  }
+
+  @Test
+  void rejectsCallsOtherThanParse() {
+    MethodCallExpr call = Sources.parse("class A { void a() { format(getAttributeValue(node, ID)); } }")
+      .findFirst(MethodCallExpr.class).orElseThrow();
+    assertThrows(RuntimeException.class, () -> new XMLAttribute(call));
+  }
+}
@@ -0,0 +1,5 @@
+package sample;
+
+public enum DelivType {
+  UNDEFINED, DIRECT, STOCK
+}
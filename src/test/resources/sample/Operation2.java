@@ -0,0 +1,9 @@
+package sample;
+
+public enum Operation2 {
+  ADD, DELETE;
+
+  public static Operation2 getByMnemonic(String mnemonic) {
+    return mnemonic.equals("A") ? ADD : DELETE;
+  }
+}
@@ -0,0 +1,16 @@
+package sample;
+
+public interface OrdersTypes {
+  String ORDER = "order";
+  String ORDER_HEAD = "head";
+  String ORDER_LINE = "line";
+  String CUSTOMER = "customer";
+  String CUSTOMER_ID = "id";
+  String DELIVERY_TYPE = "type";
+  String NOTE = "note";
+  String QTY = "qty";
+  String ITEM_NO = "no";
+  String OPERATION = "op";
+  String PRICE = "price";
+  String RUSH = "rush";
+}
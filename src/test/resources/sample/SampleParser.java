@@ -0,0 +1,131 @@
+package sample;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import sample.macom.MAComFieldMissingException;
+import sample.macom.MAComOptionalFieldMissingException;
+import sample.macom.MAException;
+
+/**
+ * A DOM parser in the style of the MACom parsers, small enough to generate and compile every counterpart of in a test.
+ */
+public class SampleParser implements OrdersTypes {
+  public static int qtyReads;
+
+  private final NodeList orderNodeList;
+  private NodeList orderLineNodeList;
+  private Node orderHeadNode;
+  private Node customerIdNode;
+  private Node orderLineNode;
+  private int currentOrderNodeIndex = -1;
+  private int currentOrderLineNodeIndex = -1;
+
+  public SampleParser(Document doc) {
+    orderNodeList = doc.getElementsByTagName(ORDER);
+  }
+
+  public boolean nextOrder() {
+    if (currentOrderNodeIndex + 1 >= orderNodeList.getLength()) return false;
+    currentOrderNodeIndex++;
+    Element order = (Element) orderNodeList.item(currentOrderNodeIndex);
+    orderHeadNode = order.getElementsByTagName(ORDER_HEAD).item(0);
+    customerIdNode = ((Element) orderHeadNode).getElementsByTagName(CUSTOMER).item(0);
+    orderLineNodeList = order.getElementsByTagName(ORDER_LINE);
+    currentOrderLineNodeIndex = -1;
+    return true;
+  }
+
+  public boolean nextOrderLine() {
+    if (currentOrderLineNodeIndex + 1 >= orderLineNodeList.getLength()) return false;
+    orderLineNode = orderLineNodeList.item(++currentOrderLineNodeIndex);
+    return true;
+  }
+
+  public String getCustomerId() throws MAException {
+    return parseStringRequired(getAttributeValue(customerIdNode, CUSTOMER_ID), CUSTOMER_ID);
+  }
+
+  public DelivType getDelivType() throws MAException {
+    return (DelivType) parseCodedValueRequired(getAttributeValue(orderHeadNode, DELIVERY_TYPE), DelivType.UNDEFINED,
+      DELIVERY_TYPE);
+  }
+
+  public String getNote() throws MAException {
+    try {
+      return parseStringOptional(getAttributeValue(orderHeadNode, NOTE), NOTE);
+    } catch (MAComOptionalFieldMissingException e) {
+    }
+    return "";
+  }
+
+  public int getQty() throws MAException {
+    qtyReads++;
+    return parseIntRequired(getAttributeValue(orderLineNode, QTY), QTY);
+  }
+
+  public String getItemNo() throws MAException {
+    return parseStringOptional(getAttributeValue(orderLineNode, ITEM_NO), ITEM_NO);
+  }
+
+  public Operation2 getOperation() throws MAException {
+    String operation = parseStringRequired(getAttributeValue(orderLineNode, OPERATION), OPERATION);
+    return Operation2.getByMnemonic(operation);
+  }
+
+  public double getPrice() throws MAException {
+    try {
+      return parseDouble(getAttributeValue(orderLineNode, PRICE), PRICE);
+    } catch (MAComFieldMissingException e) {
+      throw new MAComOptionalFieldMissingException("Field " + PRICE + " is optional", 0, e);
+    }
+  }
+
+  public boolean getRush() throws MAException {
+    try {
+      return parsebooleanOptional(getAttributeValue(orderLineNode, RUSH), RUSH);
+    } catch (MAComOptionalFieldMissingException e) {
+      return false;
+    }
+  }
+
+  public String getLabel() throws MAException {
+    return getItemNo() + ":" + getQty();
+  }
+
+  public boolean isBig() throws MAException {
+    return getQty() > 5;
+  }
+
+  static String getAttributeValue(Node node, String name) {
+    return ((Element) node).getAttribute(name);
+  }
+
+  static String parseStringRequired(String value, String name) throws MAComFieldMissingException {
+    if (value.isEmpty()) throw new MAComFieldMissingException("Field " + name + " is missing", 0, null);
+    return value;
+  }
+
+  static String parseStringOptional(String value, String name) throws MAComOptionalFieldMissingException {
+    if (value.isEmpty()) throw new MAComOptionalFieldMissingException("Field " + name + " is optional", 0, null);
+    return value;
+  }
+
+  static int parseIntRequired(String value, String name) throws MAComFieldMissingException {
+    return Integer.parseInt(parseStringRequired(value, name));
+  }
+
+  static double parseDouble(String value, String name) throws MAComFieldMissingException {
+    return Double.parseDouble(parseStringRequired(value, name));
+  }
+
+  static boolean parsebooleanOptional(String value, String name) throws MAComOptionalFieldMissingException {
+    return Boolean.parseBoolean(parseStringOptional(value, name));
+  }
+
+  static Object parseCodedValueRequired(String value, DelivType undefined, String name)
+    throws MAComFieldMissingException {
+    return DelivType.valueOf(parseStringRequired(value, name));
+  }
+}
@@ -0,0 +1,7 @@
+package sample.macom;
+
+public class MAComFieldMissingException extends MAException {
+  public MAComFieldMissingException(String message, int code, Throwable cause) {
+    super(message, code, cause);
+  }
+}
@@ -0,0 +1,7 @@
+package sample.macom;
+
+public class MAComOptionalFieldMissingException extends MAException {
+  public MAComOptionalFieldMissingException(String message, int code, Throwable cause) {
+    super(message, code, cause);
+  }
+}
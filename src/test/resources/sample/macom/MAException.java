@@ -0,0 +1,7 @@
+package sample.macom;
+
+public class MAException extends Exception {
+  public MAException(String message, int code, Throwable cause) {
+    super(message, cause);
+  }
+}